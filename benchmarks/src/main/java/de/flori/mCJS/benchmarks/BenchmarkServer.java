@@ -0,0 +1,120 @@
+package de.flori.mCJS.benchmarks;
+
+import de.flori.mCJS.MCJSContextFactory;
+import de.flori.mCJS.MCJSSettings;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.mockito.Mockito;
+import org.mockito.MockSettings;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+
+/**
+ * Lightweight stand-ins for the Bukkit types MC-JS needs outside a server.
+ * All mocks are stub-only so they do not record invocations during measurement.
+ */
+public final class BenchmarkServer {
+    private static final Logger LOGGER = Logger.getLogger("MC-JS-Benchmark");
+    private static Server server;
+
+    static {
+        // Keep plugin logging out of the measurements
+        LOGGER.setLevel(Level.OFF);
+        LOGGER.setUseParentHandlers(false);
+    }
+
+    private BenchmarkServer() {
+    }
+
+    /**
+     * Install the stand-in server as Bukkit's server (once per JVM)
+     */
+    public static synchronized Server install() {
+        if (server != null) {
+            return server;
+        }
+
+        server = Mockito.mock(Server.class, stubOnly());
+        PluginManager pluginManager = Mockito.mock(PluginManager.class, stubOnly());
+        BukkitScheduler scheduler = Mockito.mock(BukkitScheduler.class, stubOnly());
+        Inventory inventory = Mockito.mock(Inventory.class, stubOnly());
+
+        Mockito.when(server.getLogger()).thenReturn(LOGGER);
+        Mockito.when(server.getName()).thenReturn("MC-JS-Benchmark");
+        Mockito.when(server.getVersion()).thenReturn("benchmark");
+        Mockito.when(server.getBukkitVersion()).thenReturn("benchmark");
+        Mockito.when(server.getPluginManager()).thenReturn(pluginManager);
+        Mockito.when(server.getScheduler()).thenReturn(scheduler);
+        Mockito.when(server.isPrimaryThread()).thenReturn(true);
+        Mockito.when(server.createInventory(any(InventoryHolder.class), anyInt(), any(net.kyori.adventure.text.Component.class)))
+            .thenReturn(inventory);
+
+        Bukkit.setServer(server);
+        return server;
+    }
+
+    /**
+     * Create a plugin stand-in with its data folder in a fresh temp directory
+     */
+    public static JavaPlugin createPlugin() throws IOException {
+        Server server = install();
+        File dataFolder = Files.createTempDirectory("mcjs-bench").toFile();
+
+        JavaPlugin plugin = Mockito.mock(JavaPlugin.class, stubOnly());
+        Mockito.when(plugin.getLogger()).thenReturn(LOGGER);
+        Mockito.when(plugin.getDataFolder()).thenReturn(dataFolder);
+        Mockito.when(plugin.getServer()).thenReturn(server);
+        Mockito.when(plugin.getName()).thenReturn("MC-JS");
+        Mockito.when(plugin.isEnabled()).thenReturn(true);
+        return plugin;
+    }
+
+    /**
+     * Load a settings snapshot with the given performance options and apply it to new Rhino contexts
+     */
+    public static MCJSSettings applySettings(int optimizationLevel, long maxExecutionTime, boolean scriptCache) {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("performance.optimization-level", optimizationLevel);
+        config.set("performance.max-execution-time", maxExecutionTime);
+        config.set("performance.script-cache", scriptCache);
+        config.set("performance.script-cache-disk", false);
+
+        MCJSSettings settings = MCJSSettings.load(config);
+        MCJSContextFactory.getInstance().configure(settings, LOGGER);
+        return settings;
+    }
+
+    /**
+     * Delete a data folder created by createPlugin
+     */
+    public static void deleteDataFolder(JavaPlugin plugin) {
+        deleteRecursively(plugin.getDataFolder());
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static MockSettings stubOnly() {
+        return Mockito.withSettings().stubOnly();
+    }
+}
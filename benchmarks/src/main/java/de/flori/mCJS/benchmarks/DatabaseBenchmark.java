@@ -0,0 +1,141 @@
+package de.flori.mCJS.benchmarks;
+
+import de.flori.mCJS.api.ColumnarResult;
+import de.flori.mCJS.api.DatabaseAPI;
+import de.flori.mCJS.api.DatabasePool;
+import de.flori.mCJS.api.DatabaseWriter;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQLite access through DatabaseAPI as a JS plugin would use it (one call per row / query).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseBenchmark {
+    private static final String DB = "benchmark";
+    private static final String TABLE = "players";
+    private static final int PRELOADED_ROWS = 1000;
+    private static final int BATCH_SIZE = 500;
+
+    private JavaPlugin plugin;
+    private DatabaseAPI database;
+    private Map<String, Object> row;
+    private long nextId;
+    private long lookupId;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        plugin = BenchmarkServer.createPlugin();
+        BenchmarkServer.applySettings(-1, 0, true);
+        database = new DatabaseAPI(plugin);
+
+        Map<String, String> columns = new LinkedHashMap<>();
+        columns.put("id", "INTEGER PRIMARY KEY");
+        columns.put("name", "TEXT");
+        columns.put("score", "INTEGER");
+        database.createTable(DB, TABLE, columns);
+
+        for (nextId = 1; nextId <= PRELOADED_ROWS; nextId++) {
+            database.insertData(DB, TABLE, createRow(nextId));
+        }
+        row = new HashMap<>();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DatabaseWriter.closeAll();
+        DatabasePool.closeAll(null);
+        BenchmarkServer.deleteDataFolder(plugin);
+    }
+
+    @Benchmark
+    public void insertData() {
+        row.put("id", nextId);
+        row.put("name", "player" + nextId);
+        row.put("score", nextId % 100);
+        nextId++;
+        database.insertData(DB, TABLE, row);
+    }
+
+    /**
+     * Saving 500 rows in one transaction, compare with 500 x insertData
+     */
+    @Benchmark
+    public int insertBatch() {
+        List<Map<String, Object>> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            rows.add(createRow(nextId++));
+        }
+        return database.insertBatch(DB, TABLE, rows);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> querySingleRow() {
+        return database.querySQL(DB, "SELECT * FROM " + TABLE + " WHERE id = 500");
+    }
+
+    // Lookups of changing keys: a new SQL text per key is parsed every time, a template is prepared once
+
+    @Benchmark
+    public List<Map<String, Object>> lookupConcatenated() {
+        lookupId = lookupId % PRELOADED_ROWS + 1;
+        return database.querySQL(DB, "SELECT * FROM " + TABLE + " WHERE id = " + lookupId);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> lookupParameterized() {
+        lookupId = lookupId % PRELOADED_ROWS + 1;
+        return database.querySQL(DB, "SELECT * FROM " + TABLE + " WHERE id = ?", new Object[] {lookupId});
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> queryHundredRows() {
+        return database.querySQL(DB, "SELECT * FROM " + TABLE + " WHERE id <= 100");
+    }
+
+    @Benchmark
+    public ColumnarResult queryHundredRowsColumnar() {
+        return database.queryColumns(DB, "SELECT * FROM " + TABLE + " WHERE id <= 100");
+    }
+
+    @Benchmark
+    public long streamHundredRows() throws Exception {
+        long[] sum = new long[1];
+        database.forEachRow(DB, "SELECT * FROM " + TABLE + " WHERE id <= 100", (row, index) -> {
+            sum[0] += ((Number) row.get(2)).longValue();
+            return true;
+        });
+        return sum[0];
+    }
+
+    private static Map<String, Object> createRow(long id) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("id", id);
+        data.put("name", "player" + id);
+        data.put("score", id % 100);
+        return data;
+    }
+}
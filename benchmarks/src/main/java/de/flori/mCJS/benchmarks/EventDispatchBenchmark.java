@@ -0,0 +1,132 @@
+package de.flori.mCJS.benchmarks;
+
+import de.flori.mCJS.MCJSContextFactory;
+import de.flori.mCJS.api.APIHelper;
+import de.flori.mCJS.api.EventAPI;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.RegisteredListener;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Function;
+import org.mozilla.javascript.Scriptable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of firing one event through EventAPI with N JavaScript handlers registered.
+ * The event is fired the way Bukkit's plugin manager does it: through the listeners of its HandlerList.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventDispatchBenchmark {
+
+    /**
+     * Minimal cancellable event with its own HandlerList
+     */
+    public static class BenchmarkEvent extends Event implements Cancellable {
+        private static final HandlerList HANDLERS = new HandlerList();
+        private boolean cancelled;
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void setCancelled(boolean cancel) {
+            this.cancelled = cancel;
+        }
+
+        @Override
+        public HandlerList getHandlers() {
+            return HANDLERS;
+        }
+
+        public static HandlerList getHandlerList() {
+            return HANDLERS;
+        }
+    }
+
+    @Param({"1", "10", "50"})
+    public int handlerCount;
+
+    @Param({"-1", "9"})
+    public int optimizationLevel;
+
+    private JavaPlugin plugin;
+    private EventAPI eventAPI;
+    private BenchmarkEvent event;
+    private BenchmarkEvent cancelledEvent;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        plugin = BenchmarkServer.createPlugin();
+        BenchmarkServer.applySettings(optimizationLevel, 0, true);
+
+        Context cx = MCJSContextFactory.getInstance().enterContext();
+        try {
+            Scriptable scope = cx.initStandardObjects();
+            cx.evaluateString(scope, "var count = 0;", "setup", 1, null);
+            Function handler = cx.compileFunction(scope, "function(event) { count++; }", "handler", 1, null);
+
+            APIHelper apiHelper = new APIHelper();
+            apiHelper.setScope(scope);
+            apiHelper.setPluginName("benchmark");
+            eventAPI = new EventAPI(plugin, apiHelper);
+
+            // Half of the handlers skip cancelled events
+            for (int i = 0; i < handlerCount; i++) {
+                eventAPI.registerEvent(BenchmarkEvent.class, handler, EventPriority.NORMAL, i % 2 == 1);
+            }
+        } finally {
+            Context.exit();
+        }
+
+        event = new BenchmarkEvent();
+        cancelledEvent = new BenchmarkEvent();
+        cancelledEvent.setCancelled(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        eventAPI.unregisterAll();
+        BenchmarkServer.deleteDataFolder(plugin);
+    }
+
+    @Benchmark
+    public void dispatch() throws EventException {
+        fire(event);
+    }
+
+    @Benchmark
+    public void dispatchCancelled() throws EventException {
+        fire(cancelledEvent);
+    }
+
+    private static void fire(Event event) throws EventException {
+        for (RegisteredListener listener : BenchmarkEvent.getHandlerList().getRegisteredListeners()) {
+            listener.callEvent(event);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package de.flori.mCJS.benchmarks;
+
+import de.flori.mCJS.MCJSContextFactory;
+import de.flori.mCJS.api.APIHelper;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Function;
+import org.mozilla.javascript.Scriptable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of calling a JavaScript function from Java through APIHelper
+ * (context entry, argument wrapping and the execution time limit).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FunctionCallBenchmark {
+
+    @Param({"-1", "9"})
+    public int optimizationLevel;
+
+    @Param({"0", "5000"})
+    public long maxExecutionTime;
+
+    private APIHelper apiHelper;
+    private Function emptyFunction;
+    private Function loopFunction;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkServer.install();
+        BenchmarkServer.applySettings(optimizationLevel, maxExecutionTime, true);
+
+        Context cx = MCJSContextFactory.getInstance().enterContext();
+        try {
+            Scriptable scope = cx.initStandardObjects();
+            emptyFunction = cx.compileFunction(scope, "function(a) { return a; }", "empty", 1, null);
+            loopFunction = cx.compileFunction(scope,
+                "function(n) { var sum = 0; for (var i = 0; i < n; i++) { sum += i; } return sum; }", "loop", 1, null);
+            apiHelper = new APIHelper();
+            apiHelper.setScope(scope);
+            apiHelper.setPluginName("benchmark");
+        } finally {
+            Context.exit();
+        }
+    }
+
+    @Benchmark
+    public void executeEmptyFunction() {
+        apiHelper.executeFunction(emptyFunction, "value");
+    }
+
+    @Benchmark
+    public Object callEmptyFunction() {
+        return apiHelper.callFunction(emptyFunction, "value");
+    }
+
+    @Benchmark
+    public Object callLoopFunction() {
+        return apiHelper.callFunction(loopFunction, 1000);
+    }
+}
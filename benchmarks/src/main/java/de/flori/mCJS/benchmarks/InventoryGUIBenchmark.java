@@ -0,0 +1,76 @@
+package de.flori.mCJS.benchmarks;
+
+import de.flori.mCJS.api.APIHelper;
+import de.flori.mCJS.api.InventoryAPI;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a GUI with InventoryAPI.InventoryGUI (title conversion, item maps and holder data).
+ * The server inventory itself is a stand-in, so this measures MC-JS's own overhead.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventoryGUIBenchmark {
+
+    @Param({"1", "6"})
+    public int rows;
+
+    private JavaPlugin plugin;
+    private InventoryAPI inventoryAPI;
+    private ItemStack border;
+    private ItemStack button;
+    private ItemStack background;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        plugin = BenchmarkServer.createPlugin();
+        BenchmarkServer.applySettings(-1, 0, true);
+        inventoryAPI = new InventoryAPI(plugin, new APIHelper());
+
+        border = stubItem();
+        button = stubItem();
+        background = stubItem();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkServer.deleteDataFolder(plugin);
+    }
+
+    @Benchmark
+    public Inventory buildBorderedMenu() {
+        return inventoryAPI.createGUI("&6&lShop &7- &fPage 1", rows)
+            .fillBorders(border)
+            .setItem(rows * 9 / 2, button)
+            .setBackground(background)
+            .build();
+    }
+
+    private static ItemStack stubItem() {
+        ItemStack item = Mockito.mock(ItemStack.class, Mockito.withSettings().stubOnly());
+        Mockito.when(item.clone()).thenReturn(item);
+        return item;
+    }
+}
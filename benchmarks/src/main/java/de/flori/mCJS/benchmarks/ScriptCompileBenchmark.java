@@ -0,0 +1,74 @@
+package de.flori.mCJS.benchmarks;
+
+import de.flori.mCJS.JSPluginManager;
+import de.flori.mCJS.ScriptCache;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.mozilla.javascript.Script;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time JSPluginManager needs to read and compile a plugin file (the example plugin shipped with MC-JS),
+ * with and without the compiled script cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScriptCompileBenchmark {
+
+    @Param({"-1", "0", "9"})
+    public int optimizationLevel;
+
+    @Param({"false", "true"})
+    public boolean scriptCache;
+
+    private JavaPlugin plugin;
+    private JSPluginManager pluginManager;
+    private File pluginFile;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        plugin = BenchmarkServer.createPlugin();
+        BenchmarkServer.applySettings(optimizationLevel, 0, scriptCache);
+        pluginManager = new JSPluginManager(plugin, new ScriptCache(plugin));
+
+        pluginFile = pluginManager.getPluginFile("example");
+        pluginFile.getParentFile().mkdirs();
+        try (InputStream in = JSPluginManager.class.getClassLoader().getResourceAsStream("js-plugins/example.js")) {
+            if (in == null) {
+                throw new IllegalStateException("example.js not found on the classpath");
+            }
+            Files.copy(in, pluginFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkServer.deleteDataFolder(plugin);
+    }
+
+    @Benchmark
+    public Script compilePlugin() throws Exception {
+        return pluginManager.compilePluginFile(pluginFile);
+    }
+}
@@ -0,0 +1,239 @@
+package de.flori.mCJS;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records how long JavaScript entry points take, keyed by JS plugin and handler.
+ * Every call into JavaScript made through MCJSContextFactory.callWithTimeLimit is measured
+ * while profiling is enabled; when it is disabled the only cost is one volatile read per call.
+ */
+public class ExecutionProfiler {
+    private static final ExecutionProfiler INSTANCE = new ExecutionProfiler();
+
+    // Histogram bucket i counts calls shorter than 2^i microseconds (bucket 0: below 1us), the last bucket is open ended
+    public static final int BUCKETS = 24;
+
+    private volatile boolean enabled;
+    private volatile long startedAt = System.currentTimeMillis();
+
+    // Plugin name -> entry point -> statistics
+    private final Map<String, Map<String, HandlerStats>> stats = new ConcurrentHashMap<>();
+    // Plugin name -> main thread time of outermost calls (nested calls are already inside their caller's time)
+    private final Map<String, LongAdder> tickTotals = new ConcurrentHashMap<>();
+
+    /**
+     * Statistics of one entry point (thread-safe, lock-free)
+     */
+    public static class HandlerStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        public void record(long nanos) {
+            calls.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            histogram.incrementAndGet(bucketOf(nanos / 1000));
+        }
+
+        public long getCalls() { return calls.sum(); }
+        public long getTotalNanos() { return totalNanos.sum(); }
+        public long getMaxNanos() { return maxNanos.get(); }
+        public long getBucket(int index) { return histogram.get(index); }
+
+        public long getAverageNanos() {
+            long count = getCalls();
+            return count == 0 ? 0 : getTotalNanos() / count;
+        }
+
+        /**
+         * Estimate a percentile (0-100) in microseconds from the histogram (upper bound of the bucket it falls in)
+         */
+        public long getPercentileMicros(double percentile) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = histogram.get(i);
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+
+            long threshold = (long) Math.ceil(total * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= threshold) {
+                    return bucketUpperBoundMicros(i);
+                }
+            }
+            return bucketUpperBoundMicros(BUCKETS - 1);
+        }
+    }
+
+    /**
+     * One row of a profile report
+     */
+    public static class Entry {
+        public final String pluginName;
+        public final String entryPoint;
+        public final HandlerStats stats;
+
+        Entry(String pluginName, String entryPoint, HandlerStats stats) {
+            this.pluginName = pluginName;
+            this.entryPoint = entryPoint;
+            this.stats = stats;
+        }
+    }
+
+    private ExecutionProfiler() {
+    }
+
+    public static ExecutionProfiler getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        if (enabled && !this.enabled) {
+            startedAt = System.currentTimeMillis();
+        }
+        this.enabled = enabled;
+    }
+
+    /**
+     * Time at which the current recording started (enabled or reset)
+     */
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Record one call of an entry point; tickTime adds it to the plugin's total
+     * (only for outermost calls on the main thread)
+     */
+    public void record(String pluginName, String entryPoint, long nanos, boolean tickTime) {
+        String plugin = pluginName != null ? pluginName : "unknown";
+        stats.computeIfAbsent(plugin, k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(entryPoint, k -> new HandlerStats())
+            .record(nanos);
+        if (tickTime) {
+            tickTotals.computeIfAbsent(plugin, k -> new LongAdder()).add(nanos);
+        }
+    }
+
+    /**
+     * Drop all recorded data
+     */
+    public void reset() {
+        stats.clear();
+        tickTotals.clear();
+        startedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * All recorded entry points (optionally of one plugin), slowest total time first
+     */
+    public List<Entry> getEntries(String pluginFilter) {
+        List<Entry> entries = new ArrayList<>();
+        for (Map.Entry<String, Map<String, HandlerStats>> plugin : stats.entrySet()) {
+            if (pluginFilter != null && !plugin.getKey().equalsIgnoreCase(pluginFilter)) {
+                continue;
+            }
+            for (Map.Entry<String, HandlerStats> entry : plugin.getValue().entrySet()) {
+                entries.add(new Entry(plugin.getKey(), entry.getKey(), entry.getValue()));
+            }
+        }
+        entries.sort(Comparator.comparingLong((Entry e) -> e.stats.getTotalNanos()).reversed());
+        return entries;
+    }
+
+    /**
+     * Main thread time per plugin in nanoseconds, slowest first (nested and async calls are not counted)
+     */
+    public List<Map.Entry<String, Long>> getPluginTotals() {
+        List<Map.Entry<String, Long>> totals = new ArrayList<>();
+        for (Map.Entry<String, LongAdder> plugin : tickTotals.entrySet()) {
+            totals.add(Map.entry(plugin.getKey(), plugin.getValue().sum()));
+        }
+        totals.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return totals;
+    }
+
+    /**
+     * Write all recorded data as CSV to dataFolder/profiles and return the file
+     */
+    public File export(File dataFolder) throws IOException {
+        File dir = new File(dataFolder, "profiles");
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Could not create " + dir.getAbsolutePath());
+        }
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        File file = new File(dir, "profile-" + timestamp + ".csv");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))) {
+            StringBuilder header = new StringBuilder("plugin,entry_point,calls,total_ms,avg_us,max_us,p50_us,p95_us,p99_us");
+            for (int i = 0; i < BUCKETS; i++) {
+                header.append(i == BUCKETS - 1 ? ",inf" : ",lt_" + bucketUpperBoundMicros(i) + "us");
+            }
+            out.println(header);
+
+            for (Entry entry : getEntries(null)) {
+                HandlerStats s = entry.stats;
+                StringBuilder line = new StringBuilder();
+                line.append(csv(entry.pluginName)).append(',')
+                    .append(csv(entry.entryPoint)).append(',')
+                    .append(s.getCalls()).append(',')
+                    .append(String.format(java.util.Locale.ROOT, "%.3f", s.getTotalNanos() / 1_000_000.0)).append(',')
+                    .append(s.getAverageNanos() / 1000).append(',')
+                    .append(s.getMaxNanos() / 1000).append(',')
+                    .append(s.getPercentileMicros(50)).append(',')
+                    .append(s.getPercentileMicros(95)).append(',')
+                    .append(s.getPercentileMicros(99));
+                for (int i = 0; i < BUCKETS; i++) {
+                    line.append(',').append(s.getBucket(i));
+                }
+                out.println(line);
+            }
+        }
+        return file;
+    }
+
+    static int bucketOf(long micros) {
+        if (micros <= 0) {
+            return 0;
+        }
+        // 1us -> 1, 2-3us -> 2, 4-7us -> 3, ...
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+    }
+
+    static long bucketUpperBoundMicros(int bucket) {
+        return 1L << bucket;
+    }
+
+    private static String csv(String value) {
+        if (value.contains(",") || value.contains("\"")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
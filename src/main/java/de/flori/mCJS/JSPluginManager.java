@@ -4,6 +4,7 @@ import org.bukkit.plugin.java.JavaPlugin;
 import org.mozilla.javascript.Scriptable;
 import org.mozilla.javascript.ScriptableObject;
 import org.mozilla.javascript.Function;
+import org.mozilla.javascript.Script;
 
 import java.io.File;
 import java.io.IOException;
@@ -12,24 +13,37 @@ import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class JSPluginManager {
     private final JavaPlugin plugin;
+    private final ScriptCache scriptCache;
     private final Map<String, Scriptable> pluginScopes;
     private final Map<String, PluginMetadata> pluginMetadata;
+    // API instance per plugin, used to release its registrations on unload
+    private final Map<String, MCJSAPI> pluginApis;
+    
+    // Sealed root scope with the standard objects and Bukkit bindings, shared by all plugin scopes
+    private volatile ScriptableObject sharedScope;
 
-    public JSPluginManager(JavaPlugin plugin) {
+    public JSPluginManager(JavaPlugin plugin, ScriptCache scriptCache) {
         this.plugin = plugin;
+        this.scriptCache = scriptCache;
         // Use ConcurrentHashMap for thread-safety when plugins are reloaded
         this.pluginScopes = new ConcurrentHashMap<>();
         this.pluginMetadata = new ConcurrentHashMap<>();
+        this.pluginApis = new ConcurrentHashMap<>();
     }
     
     /**
      * Check if debug mode is enabled in config
      */
     private boolean isDebugMode() {
-        return plugin.getConfig().getBoolean("settings.debug-mode", false);
+        return MCJSSettings.get().isDebugMode();
     }
     
     /**
@@ -82,30 +96,101 @@ public class JSPluginManager {
         // Sort plugins by load-order if specified
         java.util.List<File> sortedPlugins = sortPluginsByLoadOrder(pluginFiles);
         
+        // Skip disabled plugins before any work is done for them
+        java.util.List<File> enabledPlugins = new java.util.ArrayList<>();
         for (File pluginFile : sortedPlugins) {
-            try {
+            String pluginName = pluginFile.getName().replace(".js", "");
+            debug("Processing plugin file: " + pluginFile.getName() + " (name: " + pluginName + ")");
+            
+            // Check if plugin is disabled in config
+            if (isPluginDisabled(pluginName)) {
+                plugin.getLogger().info("Skipping disabled plugin: " + pluginFile.getName());
+                debug("Plugin " + pluginName + " is disabled in config, skipping");
+                continue;
+            }
+            enabledPlugins.add(pluginFile);
+        }
+        
+        // Phase 1: read and compile all files in parallel (compilation does not touch the server)
+        Map<File, Future<Script>> compiled = compilePlugins(enabledPlugins);
+        
+        // Phase 2: run top-level code and onEnable on this thread in load order.
+        // A plugin starts as soon as its own compilation is done, while later files may still compile.
+        try {
+            for (File pluginFile : enabledPlugins) {
                 String pluginName = pluginFile.getName().replace(".js", "");
-                debug("Processing plugin file: " + pluginFile.getName() + " (name: " + pluginName + ")");
-                
-                // Check if plugin is disabled in config
-                if (isPluginDisabled(pluginName)) {
-                    plugin.getLogger().info("Skipping disabled plugin: " + pluginFile.getName());
-                    debug("Plugin " + pluginName + " is disabled in config, skipping");
-                    continue;
+                try {
+                    Script script = compiled.get(pluginFile).get();
+                    if (script == null) {
+                        continue;
+                    }
+                    
+                    plugin.getLogger().info("Loading JS plugin: " + pluginFile.getName());
+                    debug("Starting load process for plugin: " + pluginName);
+                    executePlugin(pluginFile, script);
+                    debug("Successfully loaded plugin: " + pluginName);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    plugin.getLogger().severe("Failed to load JS plugin: " + pluginFile.getName() + " - " + cause.getMessage());
+                    cause.printStackTrace();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    plugin.getLogger().severe("Interrupted while loading JS plugins");
+                    return;
+                } catch (Exception e) {
+                    plugin.getLogger().severe("Failed to load JS plugin: " + pluginFile.getName() + " - " + e.getMessage());
+                    e.printStackTrace();
                 }
-                
-                plugin.getLogger().info("Loading JS plugin: " + pluginFile.getName());
-                debug("Starting load process for plugin: " + pluginName);
-                loadPlugin(pluginFile);
-                debug("Successfully loaded plugin: " + pluginName);
-            } catch (Exception e) {
-                plugin.getLogger().severe("Failed to load JS plugin: " + pluginFile.getName() + " - " + e.getMessage());
-                e.printStackTrace();
+            }
+        } finally {
+            for (Future<Script> future : compiled.values()) {
+                future.cancel(false);
             }
         }
     }
 
+    /**
+     * Start compiling the given plugin files on a bounded pool sized to the available cores.
+     * Returns one future per file; a future yields null for files that should be skipped.
+     */
+    private Map<File, Future<Script>> compilePlugins(java.util.List<File> pluginFiles) {
+        Map<File, Future<Script>> futures = new HashMap<>();
+        if (pluginFiles.isEmpty()) {
+            return futures;
+        }
+        
+        int threads = Math.max(1, Math.min(pluginFiles.size(), Runtime.getRuntime().availableProcessors()));
+        debug("Compiling " + pluginFiles.size() + " plugin(s) on " + threads + " thread(s)");
+        
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "MC-JS Compiler-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (File pluginFile : pluginFiles) {
+                futures.put(pluginFile, pool.submit(() -> compilePlugin(pluginFile)));
+            }
+        } finally {
+            // Already submitted compilations still finish, the threads exit afterwards
+            pool.shutdown();
+        }
+        return futures;
+    }
+
     private void loadPlugin(File pluginFile) throws IOException {
+        Script script = compilePlugin(pluginFile);
+        if (script != null) {
+            executePlugin(pluginFile, script);
+        }
+    }
+
+    /**
+     * Read and compile a plugin file (returns null if the file is empty).
+     * Safe to call from any thread: it only uses its own Rhino context and the script cache.
+     */
+    private Script compilePlugin(File pluginFile) throws IOException {
         String pluginName = pluginFile.getName().replace(".js", "");
         debug("Reading script content from file: " + pluginFile.getAbsolutePath());
         String script = Files.readString(Path.of(pluginFile.toURI()));
@@ -113,58 +198,51 @@ public class JSPluginManager {
         if (script == null || script.trim().isEmpty()) {
             plugin.getLogger().warning("Plugin file " + pluginFile.getName() + " is empty, skipping");
             debug("Script content is empty for " + pluginName);
-            return;
+            return null;
         }
         
         debug("Script size: " + script.length() + " characters");
 
+        org.mozilla.javascript.Context rhinoContext = MCJSContextFactory.getInstance().enterContext();
+        try {
+            // Compile (or reuse the cached compiled script)
+            return scriptCache.getOrCompile(rhinoContext, script, pluginFile.getName());
+        } finally {
+            org.mozilla.javascript.Context.exit();
+        }
+    }
+
+    /**
+     * Run the top-level code of a compiled plugin and call its onEnable (main thread)
+     */
+    private void executePlugin(File pluginFile, Script compiledScript) throws IOException {
+        String pluginName = pluginFile.getName().replace(".js", "");
+
         // Create a new Rhino context for this plugin (isolated execution)
         debug("Creating Rhino context for " + pluginName);
-        org.mozilla.javascript.Context rhinoContext = org.mozilla.javascript.Context.enter();
-        int optimizationLevel = plugin.getConfig().getInt("performance.optimization-level", -1);
-        debug("Setting optimization level to: " + optimizationLevel);
-        rhinoContext.setOptimizationLevel(optimizationLevel);
-        rhinoContext.setLanguageVersion(org.mozilla.javascript.Context.VERSION_ES6);
+        org.mozilla.javascript.Context rhinoContext = MCJSContextFactory.getInstance().enterContext();
+        debug("Using optimization level: " + rhinoContext.getOptimizationLevel());
 
         try {
-            // Create a new scope for this plugin
-            debug("Initializing standard objects for " + pluginName);
-            Scriptable scope = rhinoContext.initStandardObjects();
+            // Create a lightweight scope for this plugin on top of the shared root scope.
+            // Top-level variables and functions of the plugin live in this scope only,
+            // lookups of standard objects and Bukkit classes fall through to the sealed root.
+            debug("Creating plugin scope for " + pluginName);
+            ScriptableObject sharedRoot = getSharedScope(rhinoContext);
+            Scriptable scope = rhinoContext.newObject(sharedRoot);
+            scope.setPrototype(sharedRoot);
+            scope.setParentScope(null);
             
             // Initialize API
             debug("Creating MCJSAPI instance for " + pluginName);
             MCJSAPI api = new MCJSAPI(plugin);
             api.setRhinoScope(scope);
-            debug("Setting global properties (api, server, plugin, logger, etc.)");
+            api.setPluginName(pluginName);
+            pluginApis.put(pluginName, api);
             ScriptableObject.putProperty(scope, "api", org.mozilla.javascript.Context.javaToJS(api, scope));
-            ScriptableObject.putProperty(scope, "server", org.mozilla.javascript.Context.javaToJS(plugin.getServer(), scope));
-            ScriptableObject.putProperty(scope, "plugin", org.mozilla.javascript.Context.javaToJS(plugin, scope));
-            ScriptableObject.putProperty(scope, "logger", org.mozilla.javascript.Context.javaToJS(plugin.getLogger(), scope));
-            ScriptableObject.putProperty(scope, "scheduler", org.mozilla.javascript.Context.javaToJS(plugin.getServer().getScheduler(), scope));
-            ScriptableObject.putProperty(scope, "Bukkit", org.mozilla.javascript.Context.javaToJS(plugin.getServer(), scope));
-            ScriptableObject.putProperty(scope, "Java", org.mozilla.javascript.Context.javaToJS(java.lang.System.class, scope));
-            
-            // Make Bukkit classes available
-            debug("Making Bukkit classes available");
-            ScriptableObject.putProperty(scope, "Player", org.mozilla.javascript.Context.javaToJS(org.bukkit.entity.Player.class, scope));
-            ScriptableObject.putProperty(scope, "Entity", org.mozilla.javascript.Context.javaToJS(org.bukkit.entity.Entity.class, scope));
-            ScriptableObject.putProperty(scope, "Material", org.mozilla.javascript.Context.javaToJS(org.bukkit.Material.class, scope));
-            ScriptableObject.putProperty(scope, "ChatColor", org.mozilla.javascript.Context.javaToJS(org.bukkit.ChatColor.class, scope));
-            ScriptableObject.putProperty(scope, "Location", org.mozilla.javascript.Context.javaToJS(org.bukkit.Location.class, scope));
-            ScriptableObject.putProperty(scope, "World", org.mozilla.javascript.Context.javaToJS(org.bukkit.World.class, scope));
-            ScriptableObject.putProperty(scope, "Block", org.mozilla.javascript.Context.javaToJS(org.bukkit.block.Block.class, scope));
-            ScriptableObject.putProperty(scope, "ItemStack", org.mozilla.javascript.Context.javaToJS(org.bukkit.inventory.ItemStack.class, scope));
-            ScriptableObject.putProperty(scope, "InventoryType", org.mozilla.javascript.Context.javaToJS(org.bukkit.event.inventory.InventoryType.class, scope));
-            ScriptableObject.putProperty(scope, "GameMode", org.mozilla.javascript.Context.javaToJS(org.bukkit.GameMode.class, scope));
-            ScriptableObject.putProperty(scope, "PotionEffectType", org.mozilla.javascript.Context.javaToJS(org.bukkit.potion.PotionEffectType.class, scope));
-            ScriptableObject.putProperty(scope, "Sound", org.mozilla.javascript.Context.javaToJS(org.bukkit.Sound.class, scope));
-            ScriptableObject.putProperty(scope, "EventPriority", org.mozilla.javascript.Context.javaToJS(org.bukkit.event.EventPriority.class, scope));
-            ScriptableObject.putProperty(scope, "CommandSender", org.mozilla.javascript.Context.javaToJS(org.bukkit.command.CommandSender.class, scope));
-            ScriptableObject.putProperty(scope, "OfflinePlayer", org.mozilla.javascript.Context.javaToJS(org.bukkit.OfflinePlayer.class, scope));
 
-            // Execute the script
             debug("Executing script for " + pluginName);
-            rhinoContext.evaluateString(scope, script, pluginFile.getName(), 1, null);
+            compiledScript.exec(rhinoContext, scope);
             debug("Script execution completed for " + pluginName);
 
             // Store scope (we don't need to store context - it's thread-local and we'll create new ones as needed)
@@ -236,10 +314,62 @@ public class JSPluginManager {
             } catch (Exception ex) {
                 // Ignore if context was already exited
             }
+            // Drop handlers the script registered before it failed
+            releaseApi(pluginName);
             throw new IOException("Failed to execute script: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Get the shared root scope, creating it on first use.
+     * It holds everything that is identical for all plugins and is sealed so no plugin can modify it.
+     */
+    private ScriptableObject getSharedScope(org.mozilla.javascript.Context rhinoContext) {
+        ScriptableObject scope = sharedScope;
+        if (scope != null) {
+            return scope;
+        }
+        
+        synchronized (this) {
+            if (sharedScope != null) {
+                return sharedScope;
+            }
+            
+            debug("Initializing shared standard objects");
+            scope = rhinoContext.initStandardObjects(null, true);
+            
+            debug("Setting global properties (server, plugin, logger, etc.)");
+            ScriptableObject.putProperty(scope, "server", org.mozilla.javascript.Context.javaToJS(plugin.getServer(), scope));
+            ScriptableObject.putProperty(scope, "plugin", org.mozilla.javascript.Context.javaToJS(plugin, scope));
+            ScriptableObject.putProperty(scope, "logger", org.mozilla.javascript.Context.javaToJS(plugin.getLogger(), scope));
+            ScriptableObject.putProperty(scope, "scheduler", org.mozilla.javascript.Context.javaToJS(plugin.getServer().getScheduler(), scope));
+            ScriptableObject.putProperty(scope, "Bukkit", org.mozilla.javascript.Context.javaToJS(plugin.getServer(), scope));
+            ScriptableObject.putProperty(scope, "Java", org.mozilla.javascript.Context.javaToJS(java.lang.System.class, scope));
+            
+            // Make Bukkit classes available
+            debug("Making Bukkit classes available");
+            ScriptableObject.putProperty(scope, "Player", org.mozilla.javascript.Context.javaToJS(org.bukkit.entity.Player.class, scope));
+            ScriptableObject.putProperty(scope, "Entity", org.mozilla.javascript.Context.javaToJS(org.bukkit.entity.Entity.class, scope));
+            ScriptableObject.putProperty(scope, "Material", org.mozilla.javascript.Context.javaToJS(org.bukkit.Material.class, scope));
+            ScriptableObject.putProperty(scope, "ChatColor", org.mozilla.javascript.Context.javaToJS(org.bukkit.ChatColor.class, scope));
+            ScriptableObject.putProperty(scope, "Location", org.mozilla.javascript.Context.javaToJS(org.bukkit.Location.class, scope));
+            ScriptableObject.putProperty(scope, "World", org.mozilla.javascript.Context.javaToJS(org.bukkit.World.class, scope));
+            ScriptableObject.putProperty(scope, "Block", org.mozilla.javascript.Context.javaToJS(org.bukkit.block.Block.class, scope));
+            ScriptableObject.putProperty(scope, "ItemStack", org.mozilla.javascript.Context.javaToJS(org.bukkit.inventory.ItemStack.class, scope));
+            ScriptableObject.putProperty(scope, "InventoryType", org.mozilla.javascript.Context.javaToJS(org.bukkit.event.inventory.InventoryType.class, scope));
+            ScriptableObject.putProperty(scope, "GameMode", org.mozilla.javascript.Context.javaToJS(org.bukkit.GameMode.class, scope));
+            ScriptableObject.putProperty(scope, "PotionEffectType", org.mozilla.javascript.Context.javaToJS(org.bukkit.potion.PotionEffectType.class, scope));
+            ScriptableObject.putProperty(scope, "Sound", org.mozilla.javascript.Context.javaToJS(org.bukkit.Sound.class, scope));
+            ScriptableObject.putProperty(scope, "EventPriority", org.mozilla.javascript.Context.javaToJS(org.bukkit.event.EventPriority.class, scope));
+            ScriptableObject.putProperty(scope, "CommandSender", org.mozilla.javascript.Context.javaToJS(org.bukkit.command.CommandSender.class, scope));
+            ScriptableObject.putProperty(scope, "OfflinePlayer", org.mozilla.javascript.Context.javaToJS(org.bukkit.OfflinePlayer.class, scope));
+            
+            scope.sealObject();
+            sharedScope = scope;
+            return scope;
+        }
+    }
+
     private PluginMetadata extractMetadata(Scriptable scope, String pluginName) {
         PluginMetadata metadata = new PluginMetadata(pluginName);
         try {
@@ -279,11 +409,8 @@ public class JSPluginManager {
                 
                 if (scope != null) {
                     // Create a new context for onDisable
-                    org.mozilla.javascript.Context context = org.mozilla.javascript.Context.enter();
+                    org.mozilla.javascript.Context context = MCJSContextFactory.getInstance().enterContext();
                     try {
-                        context.setOptimizationLevel(-1);
-                        context.setLanguageVersion(org.mozilla.javascript.Context.VERSION_ES6);
-                        
                         Object onDisableObj = scope.get("onDisable", scope);
                         if (onDisableObj == null || !(onDisableObj instanceof Function)) {
                             // Try to get from 'this'
@@ -316,10 +443,22 @@ public class JSPluginManager {
                 e.printStackTrace();
             }
         }
+        // Release event handlers after every onDisable ran
+        for (MCJSAPI api : pluginApis.values()) {
+            api.shutdown();
+        }
+        pluginApis.clear();
         pluginScopes.clear();
         pluginMetadata.clear();
     }
 
+    /**
+     * API instance of a loaded JS plugin (null if not loaded)
+     */
+    public MCJSAPI getPluginApi(String name) {
+        return pluginApis.get(name);
+    }
+
     public Scriptable getPluginScope(String name) {
         return pluginScopes.get(name);
     }
@@ -337,16 +476,56 @@ public class JSPluginManager {
     }
 
     public void reloadPlugin(String pluginName) {
+        disableForReload(pluginName);
+
+        // Reload the plugin file
+        File pluginFile = getPluginFile(pluginName);
+        if (pluginFile.exists()) {
+            try {
+                loadPlugin(pluginFile);
+            } catch (Exception e) {
+                plugin.getLogger().severe("Failed to reload plugin " + pluginName + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reload a plugin from a script that was already compiled off the main thread.
+     * A null script only unloads the plugin (file deleted or empty).
+     */
+    public void reloadPlugin(String pluginName, Script compiledScript) {
+        disableForReload(pluginName);
+
+        if (compiledScript != null) {
+            try {
+                executePlugin(getPluginFile(pluginName), compiledScript);
+            } catch (Exception e) {
+                plugin.getLogger().severe("Failed to reload plugin " + pluginName + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Compile a plugin file without running it (safe to call off the main thread).
+     * Returns null if the file is empty.
+     */
+    public Script compilePluginFile(File pluginFile) throws IOException {
+        return compilePlugin(pluginFile);
+    }
+
+    public File getPluginFile(String pluginName) {
+        return new File(plugin.getDataFolder(), "js-plugins/" + pluginName + ".js");
+    }
+
+    // Call onDisable of a loaded plugin and forget it
+    private void disableForReload(String pluginName) {
         Scriptable scope = pluginScopes.get(pluginName);
         
         if (scope != null) {
             try {
                 // Create a new context for onDisable
-                org.mozilla.javascript.Context context = org.mozilla.javascript.Context.enter();
+                org.mozilla.javascript.Context context = MCJSContextFactory.getInstance().enterContext();
                 try {
-                    context.setOptimizationLevel(-1);
-                    context.setLanguageVersion(org.mozilla.javascript.Context.VERSION_ES6);
-                    
                     Object onDisableObj = scope.get("onDisable", scope);
                     if (onDisableObj instanceof Function) {
                         Function onDisable = (Function) onDisableObj;
@@ -361,54 +540,44 @@ public class JSPluginManager {
             pluginScopes.remove(pluginName);
             pluginMetadata.remove(pluginName);
         }
+        releaseApi(pluginName);
+    }
 
-        // Reload the plugin file
-        File pluginFile = new File(plugin.getDataFolder(), "js-plugins/" + pluginName + ".js");
-        if (pluginFile.exists()) {
-            try {
-                loadPlugin(pluginFile);
-            } catch (Exception e) {
-                plugin.getLogger().severe("Failed to reload plugin " + pluginName + ": " + e.getMessage());
-            }
+    // Remove the plugin's event handlers so the old scope can be collected
+    private void releaseApi(String pluginName) {
+        MCJSAPI api = pluginApis.remove(pluginName);
+        if (api != null) {
+            api.shutdown();
         }
     }
 
     /**
      * Check if a plugin is disabled in the config
      */
-    private boolean isPluginDisabled(String pluginName) {
+    public boolean isPluginDisabled(String pluginName) {
         // Check if example plugin is disabled
         if (pluginName.equalsIgnoreCase("example")) {
             return !isExamplePluginEnabled();
         }
         
         // Check disabled-plugins list
-        java.util.List<String> disabledPlugins = plugin.getConfig().getStringList("plugins.disabled-plugins");
-        if (disabledPlugins != null) {
-            for (String disabled : disabledPlugins) {
-                if (disabled.equalsIgnoreCase(pluginName)) {
-                    return true;
-                }
-            }
-        }
-        
-        return false;
+        return MCJSSettings.get().isPluginDisabled(pluginName);
     }
     
     /**
      * Check if example plugin is enabled in config
      */
     private boolean isExamplePluginEnabled() {
-        return plugin.getConfig().getBoolean("settings.enable-example-plugin", true);
+        return MCJSSettings.get().isExamplePluginEnabled();
     }
     
     /**
      * Sort plugins by load-order from config
      */
     private java.util.List<File> sortPluginsByLoadOrder(File[] pluginFiles) {
-        java.util.List<String> loadOrder = plugin.getConfig().getStringList("plugins.load-order");
+        java.util.List<String> loadOrder = MCJSSettings.get().getLoadOrder();
         
-        if (loadOrder == null || loadOrder.isEmpty()) {
+        if (loadOrder.isEmpty()) {
             // No load order specified, return as-is
             return java.util.Arrays.asList(pluginFiles);
         }
@@ -8,7 +8,9 @@ import net.kyori.adventure.text.format.NamedTextColor;
 
 public final class MCJS extends JavaPlugin {
 
-    private JSPluginManager jsPluginManager;
+    private volatile JSPluginManager jsPluginManager;
+    private ScriptCache scriptCache;
+    private PluginFileWatcher fileWatcher;
 
     @Override
     public void onEnable() {
@@ -23,10 +25,12 @@ public final class MCJS extends JavaPlugin {
         
         // Reload config to ensure we have the latest values
         reloadConfig();
+        reloadSettings();
 
         // Initialize JS Plugin Manager
         try {
-            jsPluginManager = new JSPluginManager(this);
+            scriptCache = new ScriptCache(this);
+            jsPluginManager = new JSPluginManager(this, scriptCache);
 
             // Load JS plugins
             jsPluginManager.loadPlugins();
@@ -41,6 +45,9 @@ public final class MCJS extends JavaPlugin {
                     getLogger().info("  - " + pluginName + " v" + metadata.getVersion());
                 }
             }
+            
+            // Start hot reload if enabled
+            updateFileWatcher();
         } catch (Exception e) {
             getLogger().severe("Failed to initialize JS Plugin Manager: " + e.getMessage());
             e.printStackTrace();
@@ -51,12 +58,55 @@ public final class MCJS extends JavaPlugin {
     @Override
     public void onDisable() {
         // Plugin shutdown logic
+        if (fileWatcher != null) {
+            fileWatcher.stop();
+            fileWatcher = null;
+        }
         if (jsPluginManager != null) {
             jsPluginManager.unloadPlugins();
         }
+        // Timers of unloaded plugins must not survive a server reload
+        de.flori.mCJS.api.TimingWheel.clear();
+        de.flori.mCJS.api.AsyncExecutor.shutdown();
+        de.flori.mCJS.api.KeyValueStore.closeAll();
+        // After onDisable so plugins can still write their data; queued writes are committed first
+        de.flori.mCJS.api.DatabaseWriter.closeAll();
+        de.flori.mCJS.api.DatabasePool.closeAll(getLogger());
         getLogger().info("MC-JS Plugin disabled!");
     }
 
+    /**
+     * Build a new settings snapshot from config and apply it to all contexts created from now on
+     */
+    private void reloadSettings() {
+        MCJSSettings settings = MCJSSettings.load(getConfig());
+        MCJSContextFactory.getInstance().configure(settings, getLogger());
+        ExecutionProfiler.getInstance().setEnabled(settings.isProfilingEnabled());
+    }
+
+    /**
+     * Start or stop the js-plugins file watcher according to settings.auto-reload
+     */
+    private void updateFileWatcher() {
+        if (fileWatcher != null) {
+            fileWatcher.stop();
+            fileWatcher = null;
+        }
+
+        MCJSSettings settings = MCJSSettings.get();
+        if (!settings.isAutoReload()) {
+            return;
+        }
+
+        try {
+            fileWatcher = new PluginFileWatcher(this, () -> jsPluginManager, settings.getAutoReloadDelay());
+            fileWatcher.start();
+        } catch (Exception e) {
+            getLogger().warning("Could not start JS plugin file watcher: " + e.getMessage());
+            fileWatcher = null;
+        }
+    }
+
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         if (command.getName().equalsIgnoreCase("jsreload")) {
@@ -80,13 +130,15 @@ public final class MCJS extends JavaPlugin {
 
             // Reload config before reloading plugins
             reloadConfig();
+            reloadSettings();
             
             // Reload all JS plugins
             if (jsPluginManager != null) {
                 jsPluginManager.unloadPlugins();
             }
-            jsPluginManager = new JSPluginManager(this);
+            jsPluginManager = new JSPluginManager(this, scriptCache);
             jsPluginManager.loadPlugins();
+            updateFileWatcher();
 
             sender.sendMessage(Component.text("Reloaded " + jsPluginManager.getLoadedPlugins().size() + " JS plugin(s)!").color(NamedTextColor.GREEN));
             getLogger().info("Reloaded JS plugins by " + sender.getName());
@@ -108,10 +160,12 @@ public final class MCJS extends JavaPlugin {
                         if (metadata != null && metadata.getVersion() != null) {
                             sender.sendMessage(Component.text("  - ").color(net.kyori.adventure.text.format.NamedTextColor.GRAY)
                                 .append(Component.text(pluginName).color(net.kyori.adventure.text.format.NamedTextColor.WHITE))
-                                .append(Component.text(" v" + metadata.getVersion()).color(net.kyori.adventure.text.format.NamedTextColor.GRAY)));
+                                .append(Component.text(" v" + metadata.getVersion()).color(net.kyori.adventure.text.format.NamedTextColor.GRAY))
+                                .append(Component.text(formatTaskCounts(pluginName)).color(net.kyori.adventure.text.format.NamedTextColor.DARK_GRAY)));
                         } else {
                             sender.sendMessage(Component.text("  - ").color(net.kyori.adventure.text.format.NamedTextColor.GRAY)
-                                .append(Component.text(pluginName).color(net.kyori.adventure.text.format.NamedTextColor.WHITE)));
+                                .append(Component.text(pluginName).color(net.kyori.adventure.text.format.NamedTextColor.WHITE))
+                                .append(Component.text(formatTaskCounts(pluginName)).color(net.kyori.adventure.text.format.NamedTextColor.DARK_GRAY)));
                         }
                     }
                 }
@@ -125,31 +179,206 @@ public final class MCJS extends JavaPlugin {
 
             if (args.length > 0 && args[0].equalsIgnoreCase("reload")) {
                 reloadConfig();
+                reloadSettings();
+                updateFileWatcher();
                 sender.sendMessage(Component.text("Configuration reloaded!").color(NamedTextColor.GREEN));
                 getLogger().info("Configuration reloaded by " + sender.getName());
                 return true;
             }
 
             // Show config info
+            MCJSSettings settings = MCJSSettings.get();
             sender.sendMessage(Component.text("=== MC-JS Configuration ===").color(NamedTextColor.GREEN));
             sender.sendMessage(Component.text("Example plugin enabled: ").color(NamedTextColor.YELLOW)
-                .append(Component.text(String.valueOf(getConfig().getBoolean("settings.enable-example-plugin", true))).color(net.kyori.adventure.text.format.NamedTextColor.WHITE)));
+                .append(Component.text(String.valueOf(settings.isExamplePluginEnabled())).color(net.kyori.adventure.text.format.NamedTextColor.WHITE)));
             sender.sendMessage(Component.text("Debug mode: ").color(NamedTextColor.YELLOW)
-                .append(Component.text(String.valueOf(getConfig().getBoolean("settings.debug-mode", false))).color(net.kyori.adventure.text.format.NamedTextColor.WHITE)));
+                .append(Component.text(String.valueOf(settings.isDebugMode())).color(net.kyori.adventure.text.format.NamedTextColor.WHITE)));
             sender.sendMessage(Component.text("Auto-reload: ").color(NamedTextColor.YELLOW)
-                .append(Component.text(String.valueOf(getConfig().getBoolean("settings.auto-reload", false))).color(net.kyori.adventure.text.format.NamedTextColor.WHITE)));
+                .append(Component.text(String.valueOf(settings.isAutoReload())).color(net.kyori.adventure.text.format.NamedTextColor.WHITE)));
             sender.sendMessage(Component.text("Disabled plugins: ").color(NamedTextColor.YELLOW)
-                .append(Component.text(getConfig().getStringList("plugins.disabled-plugins").toString()).color(net.kyori.adventure.text.format.NamedTextColor.WHITE)));
+                .append(Component.text(settings.getDisabledPlugins().toString()).color(net.kyori.adventure.text.format.NamedTextColor.WHITE)));
             sender.sendMessage(Component.text("Load order: ").color(NamedTextColor.YELLOW)
-                .append(Component.text(getConfig().getStringList("plugins.load-order").isEmpty() ? "none" : 
-                getConfig().getStringList("plugins.load-order").toString()).color(net.kyori.adventure.text.format.NamedTextColor.WHITE)));
+                .append(Component.text(settings.getLoadOrder().isEmpty() ? "none" : 
+                settings.getLoadOrder().toString()).color(net.kyori.adventure.text.format.NamedTextColor.WHITE)));
             sender.sendMessage(Component.text("Max execution time: ").color(NamedTextColor.YELLOW)
-                .append(Component.text(getConfig().getLong("performance.max-execution-time", 5000) + "ms").color(net.kyori.adventure.text.format.NamedTextColor.WHITE)));
+                .append(Component.text(settings.getMaxExecutionTime() + "ms").color(net.kyori.adventure.text.format.NamedTextColor.WHITE)));
             sender.sendMessage(Component.text("Restrict file access: ").color(NamedTextColor.YELLOW)
-                .append(Component.text(String.valueOf(getConfig().getBoolean("security.restrict-file-access", false))).color(net.kyori.adventure.text.format.NamedTextColor.WHITE)));
+                .append(Component.text(String.valueOf(settings.isRestrictFileAccess())).color(net.kyori.adventure.text.format.NamedTextColor.WHITE)));
             sender.sendMessage(Component.text("Use /jsconfig reload to reload the config file").color(net.kyori.adventure.text.format.NamedTextColor.GRAY));
             return true;
+        } else if (command.getName().equalsIgnoreCase("jsprofile")) {
+            if (!sender.hasPermission("mcjs.admin")) {
+                sender.sendMessage(Component.text("You don't have permission to use this command!").color(NamedTextColor.RED));
+                return true;
+            }
+            handleProfileCommand(sender, args);
+            return true;
+        } else if (command.getName().equalsIgnoreCase("jsdb")) {
+            if (!sender.hasPermission("mcjs.admin")) {
+                sender.sendMessage(Component.text("You don't have permission to use this command!").color(NamedTextColor.RED));
+                return true;
+            }
+            if (args.length > 0 && args[0].equalsIgnoreCase("reset")) {
+                de.flori.mCJS.api.QueryLog.reset();
+                sender.sendMessage(Component.text("Database statistics cleared").color(NamedTextColor.GREEN));
+            } else {
+                showDatabaseStats(sender);
+            }
+            return true;
         }
         return false;
     }
+
+    /**
+     * /jsprofile [on|off|reset|export|async|plugin]
+     */
+    private void handleProfileCommand(CommandSender sender, String[] args) {
+        ExecutionProfiler profiler = ExecutionProfiler.getInstance();
+        String action = args.length > 0 ? args[0].toLowerCase() : "";
+
+        switch (action) {
+            case "on":
+                profiler.setEnabled(true);
+                sender.sendMessage(Component.text("JS profiling enabled").color(NamedTextColor.GREEN));
+                return;
+            case "off":
+                profiler.setEnabled(false);
+                sender.sendMessage(Component.text("JS profiling disabled (recorded data is kept)").color(NamedTextColor.GREEN));
+                return;
+            case "reset":
+                profiler.reset();
+                sender.sendMessage(Component.text("JS profiling data cleared").color(NamedTextColor.GREEN));
+                return;
+            case "export":
+                // Write the file off the main thread
+                getServer().getScheduler().runTaskAsynchronously(this, () -> {
+                    try {
+                        java.io.File file = profiler.export(getDataFolder());
+                        sender.sendMessage(Component.text("Profile exported to " + file.getPath()).color(NamedTextColor.GREEN));
+                    } catch (Exception e) {
+                        sender.sendMessage(Component.text("Could not export profile: " + e.getMessage()).color(NamedTextColor.RED));
+                        getLogger().severe("Could not export profile: " + e.getMessage());
+                        e.printStackTrace();
+                    }
+                });
+                return;
+            case "async":
+                showAsyncLanes(sender);
+                return;
+            default:
+                break;
+        }
+
+        String pluginFilter = args.length > 0 ? args[0] : null;
+        long seconds = Math.max(1, (System.currentTimeMillis() - profiler.getStartedAt()) / 1000);
+        sender.sendMessage(Component.text("=== MC-JS Profile (" + (profiler.isEnabled() ? "recording" : "stopped") + ", " + seconds + "s) ===")
+            .color(NamedTextColor.GREEN));
+
+        if (pluginFilter == null) {
+            // Overview: time per plugin
+            for (java.util.Map.Entry<String, Long> total : profiler.getPluginTotals()) {
+                sender.sendMessage(Component.text("  " + total.getKey() + ": ").color(NamedTextColor.YELLOW)
+                    .append(Component.text(formatMillis(total.getValue()) + " (" + formatMillis(total.getValue() / seconds) + "/s)")
+                        .color(NamedTextColor.WHITE)));
+            }
+        }
+
+        java.util.List<ExecutionProfiler.Entry> entries = profiler.getEntries(pluginFilter);
+        if (entries.isEmpty()) {
+            sender.sendMessage(Component.text(profiler.isEnabled() ? "No JS calls recorded yet."
+                : "Nothing recorded. Use /jsprofile on to start profiling.").color(NamedTextColor.YELLOW));
+            return;
+        }
+
+        int limit = pluginFilter == null ? 10 : entries.size();
+        for (ExecutionProfiler.Entry entry : entries.subList(0, Math.min(limit, entries.size()))) {
+            ExecutionProfiler.HandlerStats stats = entry.stats;
+            sender.sendMessage(Component.text("  " + (pluginFilter == null ? entry.pluginName + " " : "") + entry.entryPoint).color(NamedTextColor.YELLOW)
+                .append(Component.text(" " + stats.getCalls() + " calls, total " + formatMillis(stats.getTotalNanos())
+                    + ", avg " + stats.getAverageNanos() / 1000 + "us, p99 <" + stats.getPercentileMicros(99) + "us, max "
+                    + formatMillis(stats.getMaxNanos())).color(NamedTextColor.WHITE)));
+        }
+        sender.sendMessage(Component.text("Use /jsprofile <plugin> for details, /jsprofile export to write a CSV file").color(NamedTextColor.GRAY));
+    }
+
+    /**
+     * Live task counts of a JS plugin for /jslist, e.g. " (2 timers, 1 async)"
+     */
+    private String formatTaskCounts(String pluginName) {
+        MCJSAPI api = jsPluginManager != null ? jsPluginManager.getPluginApi(pluginName) : null;
+        if (api == null) {
+            return "";
+        }
+        java.util.List<String> parts = new java.util.ArrayList<>();
+        for (java.util.Map.Entry<String, Integer> count : api.getTaskCounts().entrySet()) {
+            if (count.getValue() > 0) {
+                parts.add(count.getValue() + " " + count.getKey());
+            }
+        }
+        return parts.isEmpty() ? "" : " (" + String.join(", ", parts) + ")";
+    }
+
+    /**
+     * Queue depth and throughput of the async lane of each JS plugin
+     */
+    private void showAsyncLanes(CommandSender sender) {
+        int cap = MCJSSettings.get().getAsyncMaxConcurrency();
+        sender.sendMessage(Component.text("=== MC-JS Async Tasks (max " + cap + " per plugin) ===").color(NamedTextColor.GREEN));
+        java.util.List<de.flori.mCJS.api.AsyncExecutor.Lane> lanes = de.flori.mCJS.api.AsyncExecutor.get(this).getLanes();
+        if (lanes.isEmpty()) {
+            sender.sendMessage(Component.text("No async tasks submitted yet.").color(NamedTextColor.YELLOW));
+            return;
+        }
+        for (de.flori.mCJS.api.AsyncExecutor.Lane lane : lanes) {
+            sender.sendMessage(Component.text("  " + lane.getPluginName() + ": ").color(NamedTextColor.YELLOW)
+                .append(Component.text(lane.getRunning() + " running, " + lane.getQueued() + " queued (peak " + lane.getPeakQueued()
+                    + "), " + lane.getCompleted() + " done, " + lane.getFailed() + " failed, avg wait "
+                    + lane.getAverageWaitMicros() + "us").color(NamedTextColor.WHITE)));
+        }
+    }
+
+    /**
+     * Query counts and latencies per database and JS plugin, writer queues and key-value stores
+     */
+    private void showDatabaseStats(CommandSender sender) {
+        long slowMs = MCJSSettings.get().getSlowQueryMs();
+        sender.sendMessage(Component.text("=== MC-JS Databases (slow query log " + (slowMs > 0 ? "above " + slowMs + "ms" : "off") + ") ===")
+            .color(NamedTextColor.GREEN));
+        java.util.List<de.flori.mCJS.api.QueryLog.DatabaseStats> databases = de.flori.mCJS.api.QueryLog.getDatabases();
+        if (databases.isEmpty()) {
+            sender.sendMessage(Component.text("No queries run yet.").color(NamedTextColor.YELLOW));
+        }
+        for (de.flori.mCJS.api.QueryLog.DatabaseStats database : databases) {
+            ExecutionProfiler.HandlerStats total = database.getTotal();
+            sender.sendMessage(Component.text("  " + database.getFile().getName() + ": ").color(NamedTextColor.YELLOW)
+                .append(Component.text(formatQueryStats(total) + ", " + database.getSlowCount() + " slow").color(NamedTextColor.WHITE)));
+            for (java.util.Map.Entry<String, ExecutionProfiler.HandlerStats> plugin : database.getPlugins()) {
+                sender.sendMessage(Component.text("    " + plugin.getKey() + ": ").color(NamedTextColor.GRAY)
+                    .append(Component.text(formatQueryStats(plugin.getValue())).color(NamedTextColor.WHITE)));
+            }
+        }
+        for (de.flori.mCJS.api.DatabaseWriter writer : de.flori.mCJS.api.DatabaseWriter.getWriters()) {
+            long commits = writer.getCommits();
+            sender.sendMessage(Component.text("  Writer " + writer.getFile().getName() + ": ").color(NamedTextColor.YELLOW)
+                .append(Component.text(writer.getWrites() + " writes in " + commits + " commits"
+                    + (commits > 0 ? String.format(java.util.Locale.ROOT, " (%.1f per commit)", writer.getWrites() / (double) commits) : "")
+                    + ", " + writer.getQueued() + " queued").color(NamedTextColor.WHITE)));
+        }
+        for (de.flori.mCJS.api.KeyValueStore store : de.flori.mCJS.api.KeyValueStore.getStores()) {
+            sender.sendMessage(Component.text("  Store " + store.getName() + " (" + store.getFile().getName() + "): ").color(NamedTextColor.YELLOW)
+                .append(Component.text(store.getCachedCount() + " cached, " + store.getDirtyCount() + " unsaved, " + store.getHits() + " hits, "
+                    + store.getMisses() + " misses, " + store.getFlushedKeys() + " keys saved in " + store.getFlushes() + " flushes")
+                    .color(NamedTextColor.WHITE)));
+        }
+        sender.sendMessage(Component.text("Use /jsdb reset to clear the statistics").color(NamedTextColor.GRAY));
+    }
+
+    private static String formatQueryStats(ExecutionProfiler.HandlerStats stats) {
+        return stats.getCalls() + " queries, total " + formatMillis(stats.getTotalNanos()) + ", avg " + stats.getAverageNanos() / 1000
+            + "us, p99 <" + stats.getPercentileMicros(99) + "us, max " + formatMillis(stats.getMaxNanos());
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(java.util.Locale.ROOT, "%.2fms", nanos / 1_000_000.0);
+    }
 }
@@ -46,7 +46,7 @@ public class MCJSAPI {
         this.entity = new EntityAPI(plugin);
         this.block = new BlockAPI(plugin);
         this.file = new FileAPI(plugin);
-        this.database = new DatabaseAPI(plugin);
+        this.database = new DatabaseAPI(plugin, apiHelper);
         this.network = new NetworkAPI(plugin);
         this.scoreboard = new ScoreboardAPI(plugin);
         this.soundParticle = new SoundParticleAPI(plugin);
@@ -64,6 +64,37 @@ public class MCJSAPI {
         this.apiHelper.setScope(scope);
     }
     
+    /**
+     * Set the name of the JS plugin that owns this API instance
+     */
+    public void setPluginName(String pluginName) {
+        this.apiHelper.setPluginName(pluginName);
+    }
+    
+    /**
+     * Release everything the owning JS plugin registered (called when it is unloaded or reloaded)
+     */
+    public void shutdown() {
+        event.unregisterAll();
+        int cancelled = scheduler.shutdown();
+        if (cancelled > 0) {
+            plugin.getLogger().info("Cancelled " + cancelled + " scheduled task(s) left running by JS plugin '" + apiHelper.getPluginName() + "'");
+        }
+        int cursors = database.shutdown();
+        if (cursors > 0) {
+            plugin.getLogger().warning("Closed " + cursors + " database cursor(s) left open by JS plugin '" + apiHelper.getPluginName() + "'");
+        }
+        // Callbacks that are already in flight (promise handlers, running async tasks) become no-ops
+        apiHelper.setScope(null);
+    }
+    
+    /**
+     * Live scheduler tasks of this plugin by kind (shown in /jslist)
+     */
+    public java.util.Map<String, Integer> getTaskCounts() {
+        return scheduler.getTaskCounts();
+    }
+    
     /**
      * Get the API helper (for internal use)
      */
@@ -111,6 +142,30 @@ public class MCJSAPI {
         return scheduler.runTaskAsync(task);
     }
     
+    public org.bukkit.scheduler.BukkitTask runTaskAsync(Object task, Object callback) {
+        return scheduler.runTaskAsync(task, callback);
+    }
+    
+    public JSPromise runAsync(Object task) {
+        return scheduler.runAsync(task);
+    }
+    
+    public boolean throttle(Object key, long ticks, Object fn) {
+        return scheduler.throttle(key, ticks, fn);
+    }
+    
+    public void debounce(Object key, long ticks, Object fn) {
+        scheduler.debounce(key, ticks, fn);
+    }
+    
+    public void coalesce(Object key, Object fn) {
+        scheduler.coalesce(key, fn);
+    }
+    
+    public void resetLimit(Object key) {
+        scheduler.resetLimit(key);
+    }
+    
     public org.bukkit.scheduler.BukkitTask runTaskLaterAsync(long delay, Object task) {
         return scheduler.runTaskLaterAsync(delay, task);
     }
@@ -119,6 +174,14 @@ public class MCJSAPI {
         scheduler.cancelTask(task);
     }
     
+    public BudgetedWorkQueue.Job submitBudgeted(Object items, Object fn) {
+        return scheduler.submitBudgeted(items, fn);
+    }
+    
+    public BudgetedWorkQueue.Job submitBudgeted(Object items, Object fn, double msPerTick) {
+        return scheduler.submitBudgeted(items, fn, msPerTick);
+    }
+    
     // Utility methods
     public void broadcast(Object message) {
         utility.broadcast(message);
@@ -274,6 +337,26 @@ public class MCJSAPI {
         database.createTable(dbName, tableName, columns);
     }
     
+    public String createIndex(String dbName, String tableName, java.util.List<String> columns) {
+        return database.createIndex(dbName, tableName, columns);
+    }
+    
+    public void createIndex(String dbName, String indexName, String tableName, java.util.List<String> columns, boolean unique) {
+        database.createIndex(dbName, indexName, tableName, columns, unique);
+    }
+    
+    public void dropIndex(String dbName, String indexName) {
+        database.dropIndex(dbName, indexName);
+    }
+    
+    public java.util.List<String> getIndexes(String dbName, String tableName) {
+        return database.getIndexes(dbName, tableName);
+    }
+    
+    public java.util.List<String> explainQuery(String dbName, String sql) {
+        return database.explainQuery(dbName, sql);
+    }
+    
     public void insertData(String dbName, String tableName, java.util.Map<String, Object> data) {
         database.insertData(dbName, tableName, data);
     }
@@ -282,6 +365,247 @@ public class MCJSAPI {
         return database.querySQL(dbName, sql);
     }
     
+    // Parameterized variants: sql is a template with ? placeholders, params the values to bind, e.g.
+    // querySQL("stats", "SELECT * FROM players WHERE uuid = ?", [player.getUniqueId()])
+    
+    public java.util.List<java.util.Map<String, Object>> querySQL(String dbName, String sql, Object[] params) {
+        return database.querySQL(dbName, sql, params);
+    }
+    
+    public void executeSQL(String dbName, String sql) {
+        database.executeSQL(dbName, sql);
+    }
+    
+    public int executeSQL(String dbName, String sql, Object[] params) {
+        return database.executeSQL(dbName, sql, params);
+    }
+    
+    public void updateData(String dbName, String tableName, java.util.Map<String, Object> data, String whereClause) {
+        database.updateData(dbName, tableName, data, whereClause);
+    }
+    
+    public void updateData(String dbName, String tableName, java.util.Map<String, Object> data, String whereClause, Object[] whereParams) {
+        database.updateData(dbName, tableName, data, whereClause, whereParams);
+    }
+    
+    public void deleteData(String dbName, String tableName, String whereClause) {
+        database.deleteData(dbName, tableName, whereClause);
+    }
+    
+    public int deleteData(String dbName, String tableName, String whereClause, Object[] whereParams) {
+        return database.deleteData(dbName, tableName, whereClause, whereParams);
+    }
+    
+    public int countRows(String dbName, String tableName) {
+        return database.countRows(dbName, tableName);
+    }
+    
+    public int countRows(String dbName, String tableName, String whereClause) {
+        return database.countRows(dbName, tableName, whereClause);
+    }
+    
+    public int countRows(String dbName, String tableName, String whereClause, Object[] whereParams) {
+        return database.countRows(dbName, tableName, whereClause, whereParams);
+    }
+    
+    /**
+     * Call fn(row, index) for every row without building a list; row.get(column) reads a value by name or index.
+     * The row object is reused, use row.toMap() to keep it. Return false from fn to stop. Returns the number of rows visited.
+     */
+    public long queryEach(String dbName, String sql, Object fn) {
+        return queryEach(dbName, sql, null, fn);
+    }
+    
+    public long queryEach(String dbName, String sql, Object[] params, Object fn) {
+        if (!(fn instanceof org.mozilla.javascript.Function)) {
+            throw new IllegalArgumentException("queryEach requires a function");
+        }
+        org.mozilla.javascript.Function function = (org.mozilla.javascript.Function) fn;
+        String label = APIHelper.describe("query row callback", fn);
+        try {
+            return database.forEachRow(dbName, sql, params, (row, index) ->
+                !Boolean.FALSE.equals(apiHelper.callFunction(label, function, row, index)));
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error querying SQL '" + sql + "': " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+    
+    public ColumnarResult queryColumns(String dbName, String sql) {
+        return database.queryColumns(dbName, sql);
+    }
+    
+    public ColumnarResult queryColumns(String dbName, String sql, Object[] params) {
+        return database.queryColumns(dbName, sql, params);
+    }
+    
+    public QueryCursor openCursor(String dbName, String sql) {
+        return database.openCursor(dbName, sql);
+    }
+    
+    public QueryCursor openCursor(String dbName, String sql, Object[] params) {
+        return database.openCursor(dbName, sql, params);
+    }
+    
+    public int insertBatch(String dbName, String tableName, java.util.List<java.util.Map<String, Object>> rows) {
+        return database.insertBatch(dbName, tableName, rows);
+    }
+    
+    public int updateBatch(String dbName, String tableName, java.util.List<java.util.Map<String, Object>> rows, String keyColumn) {
+        return database.updateBatch(dbName, tableName, rows, keyColumn);
+    }
+    
+    /**
+     * Key-value store with a write-behind cache: get/set/increment work in memory, changes are saved in batches
+     */
+    public KeyValueStore getStore(String dbName, String storeName) {
+        return database.getStore(dbName, storeName);
+    }
+    
+    // ===== Network Methods =====
+    public String httpGet(String url) {
+        return network.httpGet(url);
+    }
+    
+    public String httpPost(String url, String data) {
+        return network.httpPost(url, data);
+    }
+    
+    // ===== Async Methods =====
+    // Run on a virtual thread and return a promise; then/onError/always handlers run on the main thread
+    
+    public JSPromise httpGetAsync(String url) {
+        return async("HTTP GET " + url, () -> network.request("GET", url, null));
+    }
+    
+    public JSPromise httpPostAsync(String url, String data) {
+        return async("HTTP POST " + url, () -> network.request("POST", url, data));
+    }
+    
+    public JSPromise querySQLAsync(String dbName, String sql) {
+        return async("SQL query", () -> database.query(dbName, sql));
+    }
+    
+    public JSPromise querySQLAsync(String dbName, String sql, Object[] params) {
+        return async("SQL query", () -> database.query(dbName, sql, params));
+    }
+    
+    public JSPromise queryColumnsAsync(String dbName, String sql) {
+        return async("SQL query", () -> database.readColumns(dbName, sql));
+    }
+    
+    // Ad-hoc statements run on their own in autocommit mode, outside the writer's group commits
+    public JSPromise executeSQLAsync(String dbName, String sql) {
+        return async("SQL statement", () -> {
+            database.execute(dbName, sql);
+            return null;
+        });
+    }
+    
+    // Writes are queued on the database's writer thread and resolve once committed
+    
+    public JSPromise executeSQLAsync(String dbName, String sql, Object[] params) {
+        return asyncWrite("SQL statement", dbName, () -> database.executeUpdate(dbName, sql, params));
+    }
+    
+    public JSPromise insertDataAsync(String dbName, String tableName, java.util.Map<String, Object> data) {
+        // Copy JS objects on the calling thread
+        java.util.Map<String, Object> copy = new java.util.LinkedHashMap<>(data);
+        return asyncWrite("database insert", dbName, () -> database.insertRow(dbName, tableName, copy));
+    }
+    
+    public JSPromise insertBatchAsync(String dbName, String tableName, java.util.List<java.util.Map<String, Object>> rows) {
+        java.util.List<java.util.Map<String, Object>> copy = copyRows(rows);
+        return asyncWrite("database batch insert", dbName, () -> database.insertRows(dbName, tableName, copy));
+    }
+    
+    public JSPromise updateBatchAsync(String dbName, String tableName, java.util.List<java.util.Map<String, Object>> rows, String keyColumn) {
+        java.util.List<java.util.Map<String, Object>> copy = copyRows(rows);
+        return asyncWrite("database batch update", dbName, () -> database.updateRows(dbName, tableName, copy, keyColumn));
+    }
+    
+    public JSPromise updateDataAsync(String dbName, String tableName, java.util.Map<String, Object> data, String whereClause) {
+        java.util.Map<String, Object> copy = new java.util.LinkedHashMap<>(data);
+        return asyncWrite("database update", dbName, () -> database.updateWhere(dbName, tableName, copy, whereClause));
+    }
+    
+    public JSPromise countRowsAsync(String dbName, String tableName, String whereClause) {
+        return async("database count", () -> database.countRows(dbName, tableName, whereClause));
+    }
+    
+    public JSPromise loadYamlFileAsync(String fileName) {
+        return async("YAML load", () -> file.loadYamlFile(fileName));
+    }
+    
+    public JSPromise saveYamlFileAsync(String fileName, java.util.Map<String, Object> data) {
+        java.util.Map<String, Object> copy = new java.util.LinkedHashMap<>(data);
+        return async("YAML save", () -> {
+            file.saveYamlFile(fileName, copy);
+            return null;
+        });
+    }
+    
+    public JSPromise loadJsonFileAsync(String fileName) {
+        return async("JSON load", () -> file.loadJsonFile(fileName));
+    }
+    
+    public JSPromise saveJsonFileAsync(String fileName, String jsonContent) {
+        return async("JSON save", () -> {
+            file.saveJsonFile(fileName, jsonContent);
+            return null;
+        });
+    }
+    
+    public JSPromise loadTextFileAsync(String fileName) {
+        return async("text load", () -> file.loadTextFile(fileName));
+    }
+    
+    public JSPromise saveTextFileAsync(String fileName, String content) {
+        return async("text save", () -> {
+            file.saveTextFile(fileName, content);
+            return null;
+        });
+    }
+    
+    public JSPromise searchPluginsAsync(String query, String category) {
+        return async("plugin browser search", () -> pluginBrowser.searchPlugins(query, category));
+    }
+    
+    public JSPromise getPluginDetailsAsync(int pluginId) {
+        return async("plugin browser request", () -> pluginBrowser.getPluginDetails(pluginId));
+    }
+    
+    public JSPromise getPluginReviewsAsync(int pluginId) {
+        return async("plugin browser request", () -> pluginBrowser.getPluginReviews(pluginId));
+    }
+    
+    public JSPromise installPluginAsync(int pluginId, String fileName) {
+        return async("plugin install", () -> pluginBrowser.installPlugin(pluginId, fileName));
+    }
+    
+    private JSPromise async(String description, java.util.concurrent.Callable<?> work) {
+        return JSPromise.supplyAsync(plugin, apiHelper, description, work);
+    }
+    
+    private JSPromise asyncWrite(String description, String dbName, java.util.concurrent.Callable<?> work) {
+        return JSPromise.fromFuture(plugin, apiHelper, description, database.writeAsync(dbName, work));
+    }
+    
+    // Copy JS rows on the calling thread so the async task does not read live JS objects
+    @SuppressWarnings("unchecked")
+    private static java.util.List<java.util.Map<String, Object>> copyRows(java.util.List<?> rows) {
+        java.util.List<java.util.Map<String, Object>> copy = new java.util.ArrayList<>();
+        if (rows != null) {
+            for (Object row : rows) {
+                if (row instanceof java.util.Map) {
+                    copy.add(new java.util.LinkedHashMap<>((java.util.Map<String, Object>) row));
+                }
+            }
+        }
+        return copy;
+    }
+    
     // ===== Utility Methods =====
     public long getCurrentTimeMillis() {
         return utility.getCurrentTimeMillis();
@@ -378,6 +702,14 @@ public class MCJSAPI {
         event.registerEvent(eventClassName, handler);
     }
     
+    public void registerEvent(String eventClassName, Object handler, Object priority) {
+        event.registerEvent(eventClassName, handler, priority);
+    }
+    
+    public void registerEvent(String eventClassName, Object handler, Object priority, boolean ignoreCancelled) {
+        event.registerEvent(eventClassName, handler, priority, ignoreCancelled);
+    }
+    
     public <T extends org.bukkit.event.Event> void registerEvent(Class<T> eventClass, Object handler) {
         event.registerEvent(eventClass, handler);
     }
@@ -385,4 +717,8 @@ public class MCJSAPI {
     public <T extends org.bukkit.event.Event> void registerEvent(Class<T> eventClass, Object handler, org.bukkit.event.EventPriority priority) {
         event.registerEvent(eventClass, handler, priority);
     }
+    
+    public <T extends org.bukkit.event.Event> void registerEvent(Class<T> eventClass, Object handler, org.bukkit.event.EventPriority priority, boolean ignoreCancelled) {
+        event.registerEvent(eventClass, handler, priority, ignoreCancelled);
+    }
 }
@@ -0,0 +1,171 @@
+package de.flori.mCJS;
+
+import org.bukkit.Bukkit;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextAction;
+import org.mozilla.javascript.ContextFactory;
+
+import java.util.logging.Logger;
+
+/**
+ * Rhino ContextFactory used for every JavaScript call made by MC-JS.
+ * New contexts are configured once here (optimization level, language version),
+ * nested calls reuse the context that is already entered on the current thread.
+ * It also enforces performance.max-execution-time on the calling thread through
+ * Rhino's instruction observer instead of running callbacks on extra threads.
+ */
+public class MCJSContextFactory extends ContextFactory {
+    private static final MCJSContextFactory INSTANCE = new MCJSContextFactory();
+
+    // Number of instructions between two deadline checks
+    private static final int INSTRUCTION_OBSERVER_THRESHOLD = 10000;
+
+    private volatile int optimizationLevel = -1;
+    private volatile long maxExecutionTime = 0;
+    private volatile Logger logger = Logger.getLogger("MC-JS");
+
+    /**
+     * Context that carries the deadline of the outermost time-limited call on this thread
+     */
+    private static class MCJSContext extends Context {
+        // System.nanoTime() deadline, 0 = no limit active
+        long deadline;
+        long limitMillis;
+        // Number of callWithTimeLimit calls active on this thread, 1 = outermost
+        int depth;
+
+        MCJSContext(ContextFactory factory) {
+            super(factory);
+        }
+    }
+
+    private MCJSContextFactory() {
+    }
+
+    public static MCJSContextFactory getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Apply a settings snapshot to all contexts created from now on
+     */
+    public void configure(MCJSSettings settings, Logger logger) {
+        setOptimizationLevel(settings.getOptimizationLevel());
+        this.maxExecutionTime = Math.max(0, settings.getMaxExecutionTime());
+        this.logger = logger;
+    }
+
+    /**
+     * Set the optimization level used for contexts created from now on
+     * (-1 = interpreted, 0-9 = compiled)
+     */
+    public void setOptimizationLevel(int optimizationLevel) {
+        this.optimizationLevel = Math.max(-1, Math.min(9, optimizationLevel));
+    }
+
+    public int getOptimizationLevel() {
+        return optimizationLevel;
+    }
+
+    public long getMaxExecutionTime() {
+        return maxExecutionTime;
+    }
+
+    @Override
+    protected Context makeContext() {
+        return new MCJSContext(this);
+    }
+
+    @Override
+    protected void onContextCreated(Context cx) {
+        super.onContextCreated(cx);
+        cx.setOptimizationLevel(optimizationLevel);
+        cx.setLanguageVersion(Context.VERSION_ES6);
+
+        // Only pay for instruction counting when a limit is configured
+        if (maxExecutionTime > 0) {
+            cx.setGenerateObserverCount(true);
+            cx.setInstructionObserverThreshold(INSTRUCTION_OBSERVER_THRESHOLD);
+        }
+    }
+
+    @Override
+    protected void observeInstructionCount(Context cx, int instructionCount) {
+        if (cx instanceof MCJSContext) {
+            MCJSContext mcx = (MCJSContext) cx;
+            if (mcx.deadline != 0 && System.nanoTime() - mcx.deadline > 0) {
+                throw new ScriptTimeoutError(mcx.limitMillis);
+            }
+        }
+    }
+
+    /**
+     * Run an action with the configured execution time limit.
+     * The limit only applies on the server main thread and is measured from the outermost call;
+     * nested calls run within the deadline of their caller. If the limit is exceeded the script
+     * is aborted, an error naming the plugin is logged and null is returned.
+     * While the ExecutionProfiler is enabled the call is also timed; only outermost calls on the
+     * main thread count as tick time, nested and async calls get their own entries.
+     *
+     * @param pluginName JS plugin that owns the callback (for the error message and the profiler)
+     * @param description What is being executed, e.g. "event PlayerMoveEvent (NORMAL) onMove"
+     */
+    public <T> T callWithTimeLimit(String pluginName, String description, ContextAction<T> action) {
+        ExecutionProfiler profiler = ExecutionProfiler.getInstance();
+        if (!profiler.isEnabled()) {
+            return callLimited(pluginName, description, action);
+        }
+
+        Context current = Context.getCurrentContext();
+        boolean nested = current instanceof MCJSContext && ((MCJSContext) current).depth > 0;
+        boolean mainThread = isMainThread();
+        long start = System.nanoTime();
+        try {
+            return callLimited(pluginName, description, action);
+        } finally {
+            long nanos = System.nanoTime() - start;
+            if (!mainThread) {
+                profiler.record(pluginName, description + " [async]", nanos, false);
+            } else if (nested) {
+                profiler.record(pluginName, description + " [nested]", nanos, false);
+            } else {
+                profiler.record(pluginName, description, nanos, true);
+            }
+        }
+    }
+
+    private <T> T callLimited(String pluginName, String description, ContextAction<T> action) {
+        long limit = maxExecutionTime;
+        Context cx = enterContext();
+        if (cx instanceof MCJSContext) {
+            ((MCJSContext) cx).depth++;
+        }
+        try {
+            if (limit <= 0 || !(cx instanceof MCJSContext) || ((MCJSContext) cx).deadline != 0 || !isMainThread()) {
+                return action.run(cx);
+            }
+
+            MCJSContext mcx = (MCJSContext) cx;
+            mcx.limitMillis = limit;
+            mcx.deadline = System.nanoTime() + limit * 1_000_000L;
+            try {
+                return action.run(cx);
+            } catch (ScriptTimeoutError e) {
+                logger.severe("JS plugin '" + (pluginName != null ? pluginName : "unknown") + "' exceeded the execution time limit of "
+                    + e.getLimitMillis() + "ms in " + description + " and was aborted");
+                return null;
+            } finally {
+                mcx.deadline = 0;
+            }
+        } finally {
+            if (cx instanceof MCJSContext) {
+                ((MCJSContext) cx).depth--;
+            }
+            Context.exit();
+        }
+    }
+
+    private static boolean isMainThread() {
+        return Bukkit.getServer() != null && Bukkit.isPrimaryThread();
+    }
+}
@@ -0,0 +1,124 @@
+package de.flori.mCJS;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the MC-JS configuration.
+ * Built from config.yml on enable and replaced as a whole on reload,
+ * so hot paths read final fields instead of looking up YAML sections on every call.
+ */
+public final class MCJSSettings {
+    private static volatile MCJSSettings current = new MCJSSettings(new YamlConfiguration());
+
+    // settings
+    private final boolean debugMode;
+    private final boolean examplePluginEnabled;
+    private final boolean autoReload;
+    private final long autoReloadDelay;
+
+    // plugins
+    private final Set<String> disabledPlugins;
+    private final List<String> loadOrder;
+
+    // performance
+    private final int optimizationLevel;
+    private final long maxExecutionTime;
+    private final boolean scriptCache;
+    private final boolean scriptCacheDisk;
+    private final boolean profiling;
+    private final long tickBudgetMs;
+    private final int asyncMaxConcurrency;
+    private final int kvCacheSize;
+    private final long kvFlushInterval;
+    private final long slowQueryMs;
+
+    // security
+    private final boolean restrictFileAccess;
+    private final List<String> allowedPaths;
+
+    // plugin-browser
+    private final String pluginBrowserUrl;
+    private final boolean pluginBrowserEnabled;
+
+    private MCJSSettings(ConfigurationSection config) {
+        this.debugMode = config.getBoolean("settings.debug-mode", false);
+        this.examplePluginEnabled = config.getBoolean("settings.enable-example-plugin", true);
+        this.autoReload = config.getBoolean("settings.auto-reload", false);
+        this.autoReloadDelay = Math.max(0, config.getLong("settings.auto-reload-delay", 500));
+
+        Set<String> disabled = new HashSet<>();
+        for (String name : config.getStringList("plugins.disabled-plugins")) {
+            disabled.add(name.toLowerCase(Locale.ROOT));
+        }
+        this.disabledPlugins = Collections.unmodifiableSet(disabled);
+        this.loadOrder = List.copyOf(config.getStringList("plugins.load-order"));
+
+        this.optimizationLevel = config.getInt("performance.optimization-level", -1);
+        this.maxExecutionTime = config.getLong("performance.max-execution-time", 5000);
+        this.scriptCache = config.getBoolean("performance.script-cache", true);
+        this.scriptCacheDisk = config.getBoolean("performance.script-cache-disk", false);
+        this.profiling = config.getBoolean("performance.profiling", false);
+        this.tickBudgetMs = Math.max(1, config.getLong("performance.tick-budget-ms", 10));
+        this.asyncMaxConcurrency = Math.max(1, config.getInt("performance.async-max-concurrency", 16));
+        this.kvCacheSize = Math.max(16, config.getInt("performance.kv-cache-size", 10000));
+        this.kvFlushInterval = Math.max(1, config.getLong("performance.kv-flush-interval", 100));
+        this.slowQueryMs = Math.max(0, config.getLong("performance.slow-query-ms", 50));
+
+        this.restrictFileAccess = config.getBoolean("security.restrict-file-access", false);
+        this.allowedPaths = List.copyOf(config.getStringList("security.allowed-paths"));
+
+        this.pluginBrowserUrl = config.getString("plugin-browser.url", "https://browser.flori.tv");
+        this.pluginBrowserEnabled = config.getBoolean("plugin-browser.enabled", true);
+    }
+
+    /**
+     * Get the current settings snapshot
+     */
+    public static MCJSSettings get() {
+        return current;
+    }
+
+    /**
+     * Build a new snapshot from the given configuration and make it the current one
+     */
+    public static MCJSSettings load(ConfigurationSection config) {
+        MCJSSettings settings = new MCJSSettings(config);
+        current = settings;
+        return settings;
+    }
+
+    public boolean isDebugMode() { return debugMode; }
+    public boolean isExamplePluginEnabled() { return examplePluginEnabled; }
+    public boolean isAutoReload() { return autoReload; }
+    public long getAutoReloadDelay() { return autoReloadDelay; }
+
+    public boolean isPluginDisabled(String pluginName) {
+        return disabledPlugins.contains(pluginName.toLowerCase(Locale.ROOT));
+    }
+    public Set<String> getDisabledPlugins() { return disabledPlugins; }
+    public List<String> getLoadOrder() { return loadOrder; }
+
+    public int getOptimizationLevel() { return optimizationLevel; }
+    public long getMaxExecutionTime() { return maxExecutionTime; }
+    public boolean isScriptCacheEnabled() { return scriptCache; }
+    public boolean isScriptCacheDiskEnabled() { return scriptCacheDisk; }
+    public boolean isProfilingEnabled() { return profiling; }
+    public long getTickBudgetMs() { return tickBudgetMs; }
+    public int getAsyncMaxConcurrency() { return asyncMaxConcurrency; }
+    public int getKvCacheSize() { return kvCacheSize; }
+    public long getKvFlushInterval() { return kvFlushInterval; }
+    public long getSlowQueryMs() { return slowQueryMs; }
+
+    public boolean isRestrictFileAccess() { return restrictFileAccess; }
+    public List<String> getAllowedPaths() { return allowedPaths; }
+
+    public String getPluginBrowserUrl() { return pluginBrowserUrl; }
+    public boolean isPluginBrowserEnabled() { return pluginBrowserEnabled; }
+}
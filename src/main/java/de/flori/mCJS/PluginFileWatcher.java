@@ -0,0 +1,197 @@
+package de.flori.mCJS;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.mozilla.javascript.Script;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Watches the js-plugins directory and hot-reloads single plugins when their file changes (settings.auto-reload).
+ * Changes are debounced per file, the new version is compiled on the watcher thread and
+ * only swapped in on the main thread, so editing one script never reloads the others.
+ */
+public class PluginFileWatcher implements Runnable {
+    private final JavaPlugin plugin;
+    private final Supplier<JSPluginManager> managerSupplier;
+    private final Path directory;
+    private final long debounceMillis;
+
+    // Last change time per file name, only touched by the watcher thread
+    private final Map<String, Long> pendingChanges = new HashMap<>();
+
+    private WatchService watchService;
+    private Thread thread;
+    private volatile boolean running;
+
+    public PluginFileWatcher(JavaPlugin plugin, Supplier<JSPluginManager> managerSupplier, long debounceMillis) {
+        this.plugin = plugin;
+        this.managerSupplier = managerSupplier;
+        this.directory = new File(plugin.getDataFolder(), "js-plugins").toPath();
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * Start watching the js-plugins directory
+     */
+    public void start() throws IOException {
+        if (running) {
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService,
+            StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY,
+            StandardWatchEventKinds.ENTRY_DELETE);
+
+        running = true;
+        thread = new Thread(this, "MC-JS File Watcher");
+        thread.setDaemon(true);
+        thread.start();
+        plugin.getLogger().info("Auto-reload enabled, watching " + directory.toAbsolutePath());
+    }
+
+    /**
+     * Stop watching; pending changes are dropped
+     */
+    public void stop() {
+        running = false;
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+        }
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                // Block until something happens, or until the next pending change is due
+                WatchKey key;
+                if (pendingChanges.isEmpty()) {
+                    key = watchService.take();
+                } else {
+                    key = watchService.poll(nextDueIn(), TimeUnit.MILLISECONDS);
+                }
+
+                if (key != null) {
+                    long now = System.currentTimeMillis();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            continue;
+                        }
+                        String fileName = ((Path) event.context()).getFileName().toString();
+                        if (fileName.endsWith(".js")) {
+                            pendingChanges.put(fileName, now);
+                        }
+                    }
+                    key.reset();
+                }
+
+                processDueChanges();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Watcher was stopped
+        } catch (Exception e) {
+            plugin.getLogger().severe("JS plugin file watcher stopped: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            running = false;
+        }
+    }
+
+    private long nextDueIn() {
+        long oldest = Long.MAX_VALUE;
+        for (long changedAt : pendingChanges.values()) {
+            oldest = Math.min(oldest, changedAt);
+        }
+        return Math.max(1, oldest + debounceMillis - System.currentTimeMillis());
+    }
+
+    private void processDueChanges() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<String, Long>> iterator = pendingChanges.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            if (now - entry.getValue() >= debounceMillis) {
+                iterator.remove();
+                reload(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Compile the changed file here and hand the result to the main thread
+     */
+    private void reload(String fileName) {
+        JSPluginManager manager = managerSupplier.get();
+        if (manager == null) {
+            return;
+        }
+
+        String pluginName = fileName.substring(0, fileName.length() - ".js".length());
+        if (manager.isPluginDisabled(pluginName)) {
+            debug("Ignoring change of disabled plugin " + pluginName);
+            return;
+        }
+
+        File pluginFile = manager.getPluginFile(pluginName);
+        Script compiled = null;
+        if (pluginFile.exists()) {
+            try {
+                compiled = manager.compilePluginFile(pluginFile);
+            } catch (Exception e) {
+                // Keep the running version when the new one does not compile
+                plugin.getLogger().severe("Auto-reload: could not compile " + fileName + ", keeping the loaded version - " + e.getMessage());
+                return;
+            }
+        }
+
+        Script compiledScript = compiled;
+        if (!plugin.isEnabled()) {
+            return;
+        }
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            // Skip if the manager was replaced by /jsreload in the meantime
+            if (managerSupplier.get() != manager) {
+                return;
+            }
+            manager.reloadPlugin(pluginName, compiledScript);
+            if (compiledScript != null) {
+                plugin.getLogger().info("Auto-reloaded JS plugin: " + pluginName);
+            } else {
+                plugin.getLogger().info("Unloaded JS plugin " + pluginName + " (file removed or empty)");
+            }
+        });
+    }
+
+    private void debug(String message) {
+        if (MCJSSettings.get().isDebugMode()) {
+            plugin.getLogger().info("[DEBUG] " + message);
+        }
+    }
+}
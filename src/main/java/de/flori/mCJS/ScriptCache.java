@@ -0,0 +1,228 @@
+package de.flori.mCJS;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.mozilla.javascript.CompilerEnvirons;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.GeneratedClassLoader;
+import org.mozilla.javascript.Script;
+import org.mozilla.javascript.optimizer.ClassCompiler;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache for compiled plugin scripts.
+ * Scripts are keyed by a hash of their content and the Rhino settings used to compile them,
+ * so unchanged plugins skip parsing and code generation on startup and reload.
+ * When enabled, generated bytecode (optimization level >= 0) is also persisted to disk.
+ */
+public class ScriptCache {
+    private static final int DISK_FORMAT_MAGIC = 0x4D434A53; // "MCJS"
+    private static final int DISK_FORMAT_VERSION = 1;
+
+    private final JavaPlugin plugin;
+    private final File cacheDir;
+
+    // Compiled scripts by cache key
+    private final Map<String, Script> compiledScripts = new ConcurrentHashMap<>();
+    // Last cache key per source name, used to drop stale entries when a file changes
+    private final Map<String, String> keysBySource = new ConcurrentHashMap<>();
+
+    public ScriptCache(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.cacheDir = new File(plugin.getDataFolder(), "cache/scripts");
+    }
+
+    /**
+     * Get a compiled script for the given source, compiling it only if it is not cached yet.
+     * The context must already be entered and configured (optimization level, language version).
+     */
+    public Script getOrCompile(Context cx, String source, String sourceName) {
+        if (!isMemoryCacheEnabled()) {
+            return cx.compileString(source, sourceName, 1, null);
+        }
+
+        String key = createKey(cx, source, sourceName);
+        Script script = compiledScripts.get(key);
+        if (script != null) {
+            debug("Using cached compiled script for " + sourceName);
+            return script;
+        }
+
+        script = compile(cx, source, sourceName, key);
+        compiledScripts.put(key, script);
+
+        // Drop the previous version of this file from the cache
+        String previousKey = keysBySource.put(sourceName, key);
+        if (previousKey != null && !previousKey.equals(key)) {
+            compiledScripts.remove(previousKey);
+            deleteDiskEntry(previousKey);
+        }
+        return script;
+    }
+
+    /**
+     * Remove all cached scripts from memory (disk entries are kept)
+     */
+    public void clear() {
+        compiledScripts.clear();
+        keysBySource.clear();
+    }
+
+    public int size() {
+        return compiledScripts.size();
+    }
+
+    private Script compile(Context cx, String source, String sourceName, String key) {
+        // Interpreted mode has no bytecode to persist
+        if (cx.getOptimizationLevel() < 0 || !isDiskCacheEnabled()) {
+            debug("Compiling script " + sourceName);
+            return cx.compileString(source, sourceName, 1, null);
+        }
+
+        Script script = loadFromDisk(cx, key, sourceName);
+        if (script != null) {
+            debug("Loaded compiled script for " + sourceName + " from disk cache");
+            return script;
+        }
+
+        debug("Compiling script " + sourceName + " to bytecode");
+        CompilerEnvirons compilerEnv = new CompilerEnvirons();
+        compilerEnv.initFromContext(cx);
+        ClassCompiler compiler = new ClassCompiler(compilerEnv);
+        Object[] classFiles = compiler.compileToClassFiles(source, sourceName, 1, mainClassName(key));
+
+        try {
+            writeToDisk(key, classFiles);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not write script cache for " + sourceName + ": " + e.getMessage());
+        }
+        return defineScript(cx, classFiles);
+    }
+
+    private Script loadFromDisk(Context cx, String key, String sourceName) {
+        File file = new File(cacheDir, key + ".bin");
+        if (!file.exists()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file.toPath()))) {
+            if (in.readInt() != DISK_FORMAT_MAGIC || in.readInt() != DISK_FORMAT_VERSION) {
+                deleteDiskEntry(key);
+                return null;
+            }
+            int count = in.readInt();
+            Object[] classFiles = new Object[count * 2];
+            for (int i = 0; i < count; i++) {
+                classFiles[i * 2] = in.readUTF();
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                classFiles[i * 2 + 1] = bytes;
+            }
+            return defineScript(cx, classFiles);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Discarding unreadable script cache entry for " + sourceName + ": " + e.getMessage());
+            deleteDiskEntry(key);
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, Object[] classFiles) throws IOException {
+        if (!cacheDir.exists() && !cacheDir.mkdirs()) {
+            throw new IOException("Could not create " + cacheDir.getAbsolutePath());
+        }
+
+        // Write to a temp file first so a crash never leaves a truncated entry behind
+        File tempFile = new File(cacheDir, key + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tempFile.toPath()))) {
+            out.writeInt(DISK_FORMAT_MAGIC);
+            out.writeInt(DISK_FORMAT_VERSION);
+            out.writeInt(classFiles.length / 2);
+            for (int i = 0; i < classFiles.length; i += 2) {
+                byte[] bytes = (byte[]) classFiles[i + 1];
+                out.writeUTF((String) classFiles[i]);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+        Files.move(tempFile.toPath(), new File(cacheDir, key + ".bin").toPath(),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void deleteDiskEntry(String key) {
+        File file = new File(cacheDir, key + ".bin");
+        if (file.exists()) {
+            file.delete();
+        }
+    }
+
+    /**
+     * Define generated classes in a fresh class loader and instantiate the main script class.
+     * The first entry of classFiles is always the main class.
+     */
+    private Script defineScript(Context cx, Object[] classFiles) {
+        GeneratedClassLoader loader = cx.createClassLoader(cx.getApplicationClassLoader());
+        Class<?> mainClass = null;
+        for (int i = 0; i < classFiles.length; i += 2) {
+            Class<?> cls = loader.defineClass((String) classFiles[i], (byte[]) classFiles[i + 1]);
+            if (mainClass == null) {
+                mainClass = cls;
+            }
+        }
+        loader.linkClass(mainClass);
+
+        try {
+            return (Script) mainClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not instantiate compiled script " + mainClass.getName(), e);
+        }
+    }
+
+    private String createKey(Context cx, String source, String sourceName) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(source.getBytes(StandardCharsets.UTF_8));
+            // The source name is baked into stack traces and error messages
+            digest.update(sourceName.getBytes(StandardCharsets.UTF_8));
+            // Compiled output depends on the compiler settings and the Rhino version;
+            // bytecode only contains instruction counting when an execution time limit is active
+            String settings = cx.getOptimizationLevel() + "|" + cx.getLanguageVersion() + "|" + cx.getImplementationVersion()
+                + "|" + (cx.getInstructionObserverThreshold() > 0);
+            digest.update(settings.getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String mainClassName(String key) {
+        return "de.flori.mCJS.generated.Script_" + key.substring(0, 16);
+    }
+
+    private boolean isMemoryCacheEnabled() {
+        return MCJSSettings.get().isScriptCacheEnabled();
+    }
+
+    private boolean isDiskCacheEnabled() {
+        return MCJSSettings.get().isScriptCacheDiskEnabled();
+    }
+
+    private void debug(String message) {
+        if (MCJSSettings.get().isDebugMode()) {
+            plugin.getLogger().info("[DEBUG] " + message);
+        }
+    }
+}
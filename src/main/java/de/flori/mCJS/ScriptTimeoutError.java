@@ -0,0 +1,19 @@
+package de.flori.mCJS;
+
+/**
+ * Thrown from the instruction observer when a JavaScript call runs longer than
+ * performance.max-execution-time. This is an Error (not an Exception) so scripts
+ * cannot swallow it with try/catch.
+ */
+public class ScriptTimeoutError extends Error {
+    private final long limitMillis;
+
+    public ScriptTimeoutError(long limitMillis) {
+        super("Execution time limit of " + limitMillis + "ms exceeded");
+        this.limitMillis = limitMillis;
+    }
+
+    public long getLimitMillis() {
+        return limitMillis;
+    }
+}
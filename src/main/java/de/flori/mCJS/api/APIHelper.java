@@ -1,5 +1,7 @@
 package de.flori.mCJS.api;
 
+import de.flori.mCJS.MCJSContextFactory;
+import org.mozilla.javascript.BaseFunction;
 import org.mozilla.javascript.Function;
 import org.mozilla.javascript.Scriptable;
 
@@ -9,6 +11,7 @@ import org.mozilla.javascript.Scriptable;
  */
 public class APIHelper {
     private Scriptable scope;
+    private String pluginName;
     
     public void setScope(Scriptable scope) {
         this.scope = scope;
@@ -18,22 +21,61 @@ public class APIHelper {
         return scope;
     }
     
+    public void setPluginName(String pluginName) {
+        this.pluginName = pluginName;
+    }
+    
+    /**
+     * Name of the JS plugin this helper belongs to (used in error messages)
+     */
+    public String getPluginName() {
+        return pluginName;
+    }
+    
     /**
-     * Execute a JavaScript function with a new Rhino context
+     * Execute a JavaScript function (reuses the Rhino context if one is already entered on this thread)
      */
     public void executeFunction(Function func, Object... args) {
-        if (scope == null) {
-            return;
+        callFunction(func, args);
+    }
+    
+    /**
+     * Execute a JavaScript function, naming the entry point for the profiler and timeout messages
+     */
+    public void executeFunction(String description, Function func, Object... args) {
+        callFunction(description, func, args);
+    }
+    
+    /**
+     * Call a JavaScript function and return its result (null if no scope is set).
+     * On the main thread the call is aborted after performance.max-execution-time.
+     */
+    public Object callFunction(Function func, Object... args) {
+        return callFunction(describe("callback", func), func, args);
+    }
+    
+    /**
+     * Call a JavaScript function, naming the entry point for the profiler and timeout messages
+     */
+    public Object callFunction(String description, Function func, Object... args) {
+        Scriptable currentScope = scope;
+        if (currentScope == null) {
+            return null;
         }
-        
-        // Create a new context for this thread
-        org.mozilla.javascript.Context rhinoContext = org.mozilla.javascript.Context.enter();
-        try {
-            rhinoContext.setOptimizationLevel(-1);
-            rhinoContext.setLanguageVersion(org.mozilla.javascript.Context.VERSION_ES6);
-            func.call(rhinoContext, scope, scope, args);
-        } finally {
-            org.mozilla.javascript.Context.exit();
+        return MCJSContextFactory.getInstance().callWithTimeLimit(pluginName, description,
+            cx -> func.call(cx, currentScope, currentScope, args));
+    }
+    
+    /**
+     * Describe a JS entry point as "kind (functionName)", or just "kind" for anonymous functions
+     */
+    public static String describe(String kind, Object function) {
+        if (function instanceof BaseFunction) {
+            String name = ((BaseFunction) function).getFunctionName();
+            if (name != null && !name.isEmpty()) {
+                return kind + " (" + name + ")";
+            }
         }
+        return kind;
     }
 }
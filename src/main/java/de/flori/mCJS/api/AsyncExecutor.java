@@ -0,0 +1,270 @@
+package de.flori.mCJS.api;
+
+import de.flori.mCJS.MCJSSettings;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs async JS tasks on virtual threads instead of the Bukkit async pool, so blocking I/O in scripts
+ * (HTTP requests, database queries) neither needs nor starves a fixed pool of carrier threads.
+ * Every JS plugin gets its own lane that runs at most performance.async-max-concurrency tasks at once;
+ * further tasks wait in the lane's queue.
+ */
+public final class AsyncExecutor {
+    private static AsyncExecutor instance;
+
+    private final JavaPlugin plugin;
+    private final ExecutorService executor;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final AtomicInteger nextTaskId = new AtomicInteger();
+
+    /**
+     * Per-plugin queue with a concurrency cap and metrics
+     */
+    public static final class Lane {
+        private final String pluginName;
+        private final ConcurrentLinkedQueue<AsyncTask> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+        private final LongAccumulator peakQueued = new LongAccumulator(Math::max, 0);
+        private final LongAdder submitted = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+
+        Lane(String pluginName) {
+            this.pluginName = pluginName;
+        }
+
+        public String getPluginName() { return pluginName; }
+        public int getQueued() { return queued.get(); }
+        public int getRunning() { return running.get(); }
+        public long getPeakQueued() { return peakQueued.get(); }
+        public long getSubmitted() { return submitted.sum(); }
+        public long getCompleted() { return completed.sum(); }
+        public long getFailed() { return failed.sum(); }
+
+        /**
+         * Average time tasks spent in the queue before they started, in microseconds
+         */
+        public long getAverageWaitMicros() {
+            long started = completed.sum() + failed.sum();
+            return started == 0 ? 0 : totalWaitNanos.sum() / started / 1000;
+        }
+    }
+
+    /**
+     * An async task in a lane. Behaves like a BukkitTask for scripts (cancel, isCancelled, ...).
+     */
+    public static final class AsyncTask implements BukkitTask {
+        private final int taskId;
+        private final Plugin owner;
+        private final Lane lane;
+        private final Runnable runnable;
+        private volatile boolean cancelled;
+        private volatile long queuedAt;
+        // Delay on the timing wheel before the task enters its lane (runTaskLaterAsync)
+        private volatile BukkitTask delay;
+
+        private AsyncTask(int taskId, Plugin owner, Lane lane, Runnable runnable) {
+            this.taskId = taskId;
+            this.owner = owner;
+            this.lane = lane;
+            this.runnable = runnable;
+        }
+
+        @Override
+        public int getTaskId() {
+            return taskId;
+        }
+
+        @Override
+        public Plugin getOwner() {
+            return owner;
+        }
+
+        @Override
+        public boolean isSync() {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Cancel the task if it has not started yet (a running task is not interrupted)
+         */
+        @Override
+        public void cancel() {
+            cancelled = true;
+            BukkitTask pendingDelay = delay;
+            if (pendingDelay != null) {
+                pendingDelay.cancel();
+            }
+        }
+
+        /**
+         * Name of the JS plugin that submitted the task
+         */
+        public String getPluginName() {
+            return lane.pluginName;
+        }
+    }
+
+    private AsyncExecutor(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("MC-JS Async-", 1).factory());
+    }
+
+    /**
+     * Get the shared executor (created on first use)
+     */
+    public static synchronized AsyncExecutor get(JavaPlugin plugin) {
+        if (instance == null) {
+            instance = new AsyncExecutor(plugin);
+        }
+        return instance;
+    }
+
+    /**
+     * Run a task asynchronously in the lane of the given JS plugin
+     */
+    public AsyncTask submit(String pluginName, Runnable runnable) {
+        AsyncTask task = newTask(pluginName, runnable);
+        enqueue(task);
+        return task;
+    }
+
+    /**
+     * Run a task asynchronously after delay ticks. The delay runs on the timing wheel, the task itself in the plugin's lane.
+     */
+    public AsyncTask submitLater(String pluginName, long delay, Runnable runnable) {
+        AsyncTask task = newTask(pluginName, runnable);
+        task.delay = TimingWheel.get(plugin).schedule(() -> enqueue(task), delay, 0);
+        return task;
+    }
+
+    /**
+     * Cancel all queued tasks of a JS plugin (running tasks finish on their own)
+     */
+    public void cancelAll(String pluginName) {
+        Lane lane = lanes.get(lane(pluginName));
+        if (lane == null) {
+            return;
+        }
+        AsyncTask task;
+        while ((task = lane.queue.poll()) != null) {
+            lane.queued.decrementAndGet();
+            task.cancel();
+        }
+    }
+
+    /**
+     * Metrics of all lanes
+     */
+    public List<Lane> getLanes() {
+        return new ArrayList<>(lanes.values());
+    }
+
+    /**
+     * Cancel everything that is queued and interrupt running tasks (used when MC-JS is disabled)
+     */
+    public static synchronized void shutdown() {
+        AsyncExecutor executor = instance;
+        if (executor == null) {
+            return;
+        }
+        instance = null;
+        for (Lane lane : executor.lanes.values()) {
+            AsyncTask task;
+            while ((task = lane.queue.poll()) != null) {
+                task.cancel();
+            }
+        }
+        executor.executor.shutdownNow();
+    }
+
+    private AsyncTask newTask(String pluginName, Runnable runnable) {
+        Lane lane = lanes.computeIfAbsent(lane(pluginName), Lane::new);
+        return new AsyncTask(nextTaskId.incrementAndGet(), plugin, lane, runnable);
+    }
+
+    private void enqueue(AsyncTask task) {
+        if (task.cancelled) {
+            return;
+        }
+        Lane lane = task.lane;
+        task.queuedAt = System.nanoTime();
+        lane.submitted.increment();
+        lane.queue.add(task);
+        lane.peakQueued.accumulate(lane.queued.incrementAndGet());
+        drain(lane);
+    }
+
+    // Start queued tasks while the lane is below its cap
+    private void drain(Lane lane) {
+        int cap = MCJSSettings.get().getAsyncMaxConcurrency();
+        while (true) {
+            int current = lane.running.get();
+            if (current >= cap || lane.queue.isEmpty()) {
+                return;
+            }
+            if (!lane.running.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            AsyncTask task = lane.queue.poll();
+            if (task == null) {
+                lane.running.decrementAndGet();
+                continue;
+            }
+            lane.queued.decrementAndGet();
+            try {
+                executor.execute(() -> run(task));
+            } catch (RejectedExecutionException e) {
+                // MC-JS is shutting down
+                lane.running.decrementAndGet();
+                task.cancelled = true;
+                return;
+            }
+        }
+    }
+
+    private void run(AsyncTask task) {
+        Lane lane = task.lane;
+        try {
+            if (!task.cancelled) {
+                lane.totalWaitNanos.add(System.nanoTime() - task.queuedAt);
+                task.runnable.run();
+                lane.completed.increment();
+            }
+        } catch (Throwable t) {
+            lane.failed.increment();
+            plugin.getLogger().severe("Error in async task of JS plugin '" + lane.pluginName + "': " + t.getMessage());
+            t.printStackTrace();
+        } finally {
+            // Finished tasks report as cancelled, like Bukkit tasks
+            task.cancelled = true;
+            lane.running.decrementAndGet();
+            drain(lane);
+        }
+    }
+
+    private static String lane(String pluginName) {
+        return pluginName != null ? pluginName : "unknown";
+    }
+}
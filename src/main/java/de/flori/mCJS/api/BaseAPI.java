@@ -1,5 +1,6 @@
 package de.flori.mCJS.api;
 
+import de.flori.mCJS.MCJSSettings;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -18,7 +19,7 @@ public abstract class BaseAPI {
      * Check if debug mode is enabled in config
      */
     protected boolean isDebugMode() {
-        return plugin.getConfig().getBoolean("settings.debug-mode", false);
+        return MCJSSettings.get().isDebugMode();
     }
     
     /**
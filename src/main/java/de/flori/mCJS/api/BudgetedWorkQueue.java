@@ -0,0 +1,348 @@
+package de.flori.mCJS.api;
+
+import de.flori.mCJS.MCJSSettings;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.mozilla.javascript.Function;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Cooperative work queue that processes large JS jobs a few items per tick.
+ * All jobs share one per-tick time budget (performance.tick-budget-ms), which is split evenly between
+ * the JS plugins that have work queued, so one plugin's job cannot starve the others or cause a lag spike.
+ * Jobs run on the main thread; submitting is thread-safe.
+ */
+public final class BudgetedWorkQueue implements Runnable {
+    private static BudgetedWorkQueue instance;
+
+    private final JavaPlugin plugin;
+    // Jobs submitted since the last tick (any thread)
+    private final ConcurrentLinkedQueue<Job> incoming = new ConcurrentLinkedQueue<>();
+    // Active jobs per JS plugin (guarded by this, jobs only run on the main thread)
+    private final Map<String, ArrayDeque<Job>> jobsByPlugin = new LinkedHashMap<>();
+    private int rotation;
+    private BukkitTask ticker;
+
+    /**
+     * Handle of a submitted job, returned to JavaScript
+     */
+    public static class Job {
+        private final APIHelper apiHelper;
+        private final java.util.logging.Logger logger;
+        private final String pluginName;
+        private final Iterator<?> items;
+        private final long total;
+        private final Function function;
+        private final long nanosPerTick;
+        private final String label;
+
+        private volatile Object progressHandler;
+        private volatile Object completeHandler;
+        private volatile boolean cancelled;
+        // Cancelled because the plugin was unloaded: do not call back into JS
+        private volatile boolean silent;
+        private volatile boolean done;
+        private volatile long processed;
+        private volatile String status = "running";
+
+        Job(APIHelper apiHelper, java.util.logging.Logger logger, Object items, Function function, double msPerTick) {
+            this.apiHelper = apiHelper;
+            this.logger = logger;
+            this.pluginName = apiHelper.getPluginName() != null ? apiHelper.getPluginName() : "unknown";
+            this.items = toIterator(items);
+            this.total = sizeOf(items);
+            this.function = function;
+            this.nanosPerTick = Math.max(1, (long) (msPerTick * 1_000_000L));
+            this.label = APIHelper.describe("budgeted job", function);
+        }
+
+        /**
+         * Called with (processed, total) after every tick in which the job made progress (total is -1 if unknown)
+         */
+        public Job onProgress(Object handler) {
+            this.progressHandler = handler;
+            return this;
+        }
+
+        /**
+         * Called once with (processed, status) when the job ends; status is "completed", "stopped", "cancelled" or "failed"
+         */
+        public Job onComplete(Object handler) {
+            this.completeHandler = handler;
+            return this;
+        }
+
+        /**
+         * Stop the job before its next item
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() { return cancelled; }
+        public boolean isDone() { return done; }
+        public long getProcessed() { return processed; }
+        public long getTotal() { return total; }
+        public String getStatus() { return status; }
+
+        /**
+         * Process items until the deadline (at least one). Returns true when the job is finished.
+         */
+        boolean runUntil(long deadline) {
+            if (cancelled) {
+                return finish("cancelled");
+            }
+
+            long before = processed;
+            try {
+                do {
+                    if (!items.hasNext()) {
+                        return finish("completed");
+                    }
+                    Object result = apiHelper.callFunction(label, function, items.next(), processed);
+                    processed++;
+                    // Returning false from the callback stops the job
+                    if (Boolean.FALSE.equals(result)) {
+                        return finish("stopped");
+                    }
+                } while (!cancelled && System.nanoTime() - deadline < 0);
+            } catch (Exception e) {
+                logger.severe("Error in budgeted job of JS plugin '" + pluginName + "' at item " + processed + ": " + e.getMessage());
+                return finish("failed");
+            }
+
+            if (processed > before) {
+                callHandler(progressHandler, processed, total);
+            }
+            if (cancelled) {
+                return finish("cancelled");
+            }
+            if (!items.hasNext()) {
+                return finish("completed");
+            }
+            return false;
+        }
+
+        private boolean finish(String status) {
+            this.status = status;
+            this.done = true;
+            callHandler(completeHandler, processed, status);
+            return true;
+        }
+
+        private void callHandler(Object handler, Object... args) {
+            if (silent || !(handler instanceof Function)) {
+                return;
+            }
+            try {
+                apiHelper.callFunction(label + " callback", (Function) handler, args);
+            } catch (Exception e) {
+                logger.severe("Error in budgeted job callback of JS plugin '" + pluginName + "': " + e.getMessage());
+            }
+        }
+    }
+
+    private BudgetedWorkQueue(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Get the shared queue (created on first use)
+     */
+    public static synchronized BudgetedWorkQueue get(JavaPlugin plugin) {
+        if (instance == null) {
+            instance = new BudgetedWorkQueue(plugin);
+        }
+        return instance;
+    }
+
+    /**
+     * Queue a job; it starts on the next tick
+     */
+    public Job submit(APIHelper apiHelper, Object items, Function function, double msPerTick) {
+        Job job = new Job(apiHelper, plugin.getLogger(), items, function, msPerTick);
+        incoming.add(job);
+        ensureTicker();
+        return job;
+    }
+
+    /**
+     * Cancel all jobs submitted through the given API helper without calling back into JavaScript
+     */
+    public void cancelAll(APIHelper apiHelper) {
+        for (Job job : incoming) {
+            if (job.apiHelper == apiHelper) {
+                job.silent = true;
+                job.cancel();
+            }
+        }
+        synchronized (this) {
+            for (ArrayDeque<Job> jobs : jobsByPlugin.values()) {
+                for (Job job : jobs) {
+                    if (job.apiHelper == apiHelper) {
+                        job.silent = true;
+                        job.cancel();
+                    }
+                }
+            }
+        }
+    }
+
+    private synchronized void ensureTicker() {
+        // The ticker is also gone when MC-JS was disabled and enabled again
+        if ((ticker == null || ticker.isCancelled()) && plugin.isEnabled()) {
+            ticker = plugin.getServer().getScheduler().runTaskTimer(plugin, this, 1L, 1L);
+        }
+    }
+
+    @Override
+    public void run() {
+        synchronized (this) {
+            Job job;
+            while ((job = incoming.poll()) != null) {
+                jobsByPlugin.computeIfAbsent(job.pluginName, k -> new ArrayDeque<>()).add(job);
+            }
+            if (jobsByPlugin.isEmpty()) {
+                // Nothing left, stop ticking until the next submit
+                ticker.cancel();
+                ticker = null;
+                return;
+            }
+        }
+
+        long budget = Math.max(1, MCJSSettings.get().getTickBudgetMs()) * 1_000_000L;
+        long tickStart = System.nanoTime();
+
+        List<String> plugins;
+        synchronized (this) {
+            plugins = new ArrayList<>(jobsByPlugin.keySet());
+        }
+        // Rotate the starting plugin so leftovers of the budget are shared over time
+        int count = plugins.size();
+        int start = Math.floorMod(rotation++, count);
+        for (int i = 0; i < count; i++) {
+            long remaining = budget - (System.nanoTime() - tickStart);
+            if (remaining <= 0) {
+                break;
+            }
+            String pluginName = plugins.get((start + i) % count);
+            ArrayDeque<Job> jobs;
+            synchronized (this) {
+                jobs = jobsByPlugin.get(pluginName);
+            }
+            // Even share of what is left for each plugin that has not run yet
+            runJobs(jobs, System.nanoTime() + remaining / (count - i));
+            synchronized (this) {
+                if (jobs.isEmpty()) {
+                    jobsByPlugin.remove(pluginName);
+                }
+            }
+        }
+    }
+
+    // Run the jobs of one plugin until its slice ends; each job is also limited by its own msPerTick.
+    // A job that ran moves to the tail, so the next tick starts with the jobs this slice did not reach.
+    private void runJobs(ArrayDeque<Job> jobs, long sliceEnd) {
+        Job[] snapshot;
+        synchronized (this) {
+            snapshot = jobs.toArray(new Job[0]);
+        }
+        for (Job job : snapshot) {
+            long now = System.nanoTime();
+            if (now - sliceEnd >= 0) {
+                break;
+            }
+            long deadline = Math.min(sliceEnd, now + job.nanosPerTick);
+            boolean finished = job.runUntil(deadline);
+            synchronized (this) {
+                if (jobs.remove(job) && !finished) {
+                    jobs.addLast(job);
+                }
+            }
+        }
+    }
+
+    // ===== ITEM SOURCES =====
+
+    /**
+     * Iterate a Java collection/iterable, a Java or JS array, or a number n (0 .. n-1)
+     */
+    private static Iterator<?> toIterator(Object items) {
+        if (items instanceof Iterable) {
+            return ((Iterable<?>) items).iterator();
+        }
+        if (items instanceof Object[]) {
+            return Arrays.asList((Object[]) items).iterator();
+        }
+        if (items instanceof Number) {
+            long count = ((Number) items).longValue();
+            return new Iterator<Long>() {
+                private long next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < count;
+                }
+
+                @Override
+                public Long next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return next++;
+                }
+            };
+        }
+        if (items instanceof Scriptable) {
+            // Array-like JS object
+            Scriptable array = (Scriptable) items;
+            long length = sizeOf(items);
+            return new Iterator<Object>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < length;
+                }
+
+                @Override
+                public Object next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return ScriptableObject.getProperty(array, next++);
+                }
+            };
+        }
+        throw new IllegalArgumentException("Cannot iterate over " + (items != null ? items.getClass().getName() : "null"));
+    }
+
+    private static long sizeOf(Object items) {
+        if (items instanceof Collection) {
+            return ((Collection<?>) items).size();
+        }
+        if (items instanceof Object[]) {
+            return ((Object[]) items).length;
+        }
+        if (items instanceof Number) {
+            return Math.max(0, ((Number) items).longValue());
+        }
+        if (items instanceof Scriptable) {
+            Object length = ScriptableObject.getProperty((Scriptable) items, "length");
+            return length instanceof Number ? ((Number) length).longValue() : 0;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,84 @@
+package de.flori.mCJS.api;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Query result stored as one value array per row plus one shared list of column names,
+ * instead of a map per row. Values are addressed by row index and column index or name.
+ */
+public final class ColumnarResult {
+    private final String[] columns;
+    private final Map<String, Integer> indexes;
+    private final List<Object[]> rows;
+
+    private ColumnarResult(String[] columns, List<Object[]> rows) {
+        this.columns = columns;
+        this.indexes = ResultRow.indexesOf(columns);
+        this.rows = rows;
+    }
+
+    /**
+     * Read all remaining rows of a result set
+     */
+    static ColumnarResult read(ResultSet rs) throws SQLException {
+        String[] columns = ResultRow.columnsOf(rs);
+        List<Object[]> rows = new ArrayList<>();
+        while (rs.next()) {
+            Object[] values = new Object[columns.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = rs.getObject(i + 1);
+            }
+            rows.add(values);
+        }
+        return new ColumnarResult(columns, rows);
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public boolean isEmpty() {
+        return rows.isEmpty();
+    }
+
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    public int indexOf(String column) {
+        Integer index = indexes.get(column);
+        return index != null ? index : -1;
+    }
+
+    public Object get(int row, int column) {
+        Object[] values = rows.get(row);
+        return column >= 0 && column < values.length ? values[column] : null;
+    }
+
+    public Object get(int row, String column) {
+        return get(row, indexOf(column));
+    }
+
+    /**
+     * View of one row (shares the value array, not a copy)
+     */
+    public ResultRow getRow(int row) {
+        return new ResultRow(columns, indexes, rows.get(row));
+    }
+
+    /**
+     * All values of one column
+     */
+    public List<Object> column(String column) {
+        int index = indexOf(column);
+        List<Object> values = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            values.add(index >= 0 ? row[index] : null);
+        }
+        return values;
+    }
+}
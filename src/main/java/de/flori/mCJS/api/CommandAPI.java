@@ -1,5 +1,6 @@
 package de.flori.mCJS.api;
 
+import de.flori.mCJS.MCJSContextFactory;
 import org.bukkit.command.*;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.mozilla.javascript.Function;
@@ -51,37 +52,31 @@ public class CommandAPI extends BaseAPI {
                 if (command != null && tabCompleter instanceof Function) {
                     command.setTabCompleter((sender, cmd, alias, args) -> {
                         try {
-                            org.mozilla.javascript.Context rhinoContext = org.mozilla.javascript.Context.enter();
-                            try {
-                                rhinoContext.setOptimizationLevel(-1);
-                                rhinoContext.setLanguageVersion(org.mozilla.javascript.Context.VERSION_ES6);
-                                Function func = (Function) tabCompleter;
-                                Scriptable scope = apiHelper.getScope();
-                                Object result = func.call(rhinoContext, scope, scope, new Object[]{sender, args});
-                                
-                                if (result instanceof java.util.List) {
-                                    @SuppressWarnings("unchecked")
-                                    java.util.List<String> list = (java.util.List<String>) result;
-                                    return list;
-                                } else if (result instanceof Object[]) {
-                                    return java.util.Arrays.asList((String[]) result);
-                                } else if (result instanceof Scriptable) {
-                                    Scriptable array = (Scriptable) result;
-                                    java.util.List<String> completions = new java.util.ArrayList<>();
-                                    Object length = array.get("length", array);
-                                    if (length instanceof Number) {
-                                        int len = ((Number) length).intValue();
-                                        for (int i = 0; i < len; i++) {
-                                            Object item = array.get(i, array);
-                                            if (item != null) {
-                                                completions.add(item.toString());
-                                            }
+                            Function func = (Function) tabCompleter;
+                            Scriptable scope = apiHelper.getScope();
+                            Object result = MCJSContextFactory.getInstance().callWithTimeLimit(apiHelper.getPluginName(), "tab completer /" + cmd.getName(),
+                                cx -> func.call(cx, scope, scope, new Object[]{sender, args}));
+                            
+                            if (result instanceof java.util.List) {
+                                @SuppressWarnings("unchecked")
+                                java.util.List<String> list = (java.util.List<String>) result;
+                                return list;
+                            } else if (result instanceof Object[]) {
+                                return java.util.Arrays.asList((String[]) result);
+                            } else if (result instanceof Scriptable) {
+                                Scriptable array = (Scriptable) result;
+                                java.util.List<String> completions = new java.util.ArrayList<>();
+                                Object length = array.get("length", array);
+                                if (length instanceof Number) {
+                                    int len = ((Number) length).intValue();
+                                    for (int i = 0; i < len; i++) {
+                                        Object item = array.get(i, array);
+                                        if (item != null) {
+                                            completions.add(item.toString());
                                         }
                                     }
-                                    return completions;
                                 }
-                            } finally {
-                                org.mozilla.javascript.Context.exit();
+                                return completions;
                             }
                         } catch (Exception e) {
                             plugin.getLogger().warning("Error in tab completer for command '" + name + "': " + e.getMessage());
@@ -113,26 +108,7 @@ public class CommandAPI extends BaseAPI {
                         @Override
                         public boolean execute(CommandSender sender, String commandLabel, String[] args) {
                             try {
-                                if (executor instanceof Function && apiHelper.getScope() != null) {
-                                    org.mozilla.javascript.Context rhinoContext = org.mozilla.javascript.Context.enter();
-                                    try {
-                                        rhinoContext.setOptimizationLevel(-1);
-                                        rhinoContext.setLanguageVersion(org.mozilla.javascript.Context.VERSION_ES6);
-                                        Function func = (Function) executor;
-                                        Scriptable scope = apiHelper.getScope();
-                                        // Convert String[] to JavaScript array
-                                        Scriptable jsArgs = rhinoContext.newArray(scope, args.length);
-                                        for (int i = 0; i < args.length; i++) {
-                                            // Ensure we pass a proper String, not ConsString
-                                            jsArgs.put(i, jsArgs, args[i] != null ? args[i].toString() : "");
-                                        }
-                                        Object result = func.call(rhinoContext, scope, scope, new Object[]{sender, jsArgs});
-                                        return result instanceof Boolean ? (Boolean) result : true;
-                                    } finally {
-                                        org.mozilla.javascript.Context.exit();
-                                    }
-                                }
-                                return true;
+                                return callExecutor(name, executor, sender, args);
                             } catch (Exception e) {
                                 plugin.getLogger().severe("Error executing JS command '" + name + "': " + e.getMessage());
                                 e.printStackTrace();
@@ -158,26 +134,7 @@ public class CommandAPI extends BaseAPI {
             // Set executor for existing command
             command.setExecutor((sender, cmd, label, args) -> {
                 try {
-                    if (executor instanceof Function && apiHelper.getScope() != null) {
-                        org.mozilla.javascript.Context rhinoContext = org.mozilla.javascript.Context.enter();
-                        try {
-                            rhinoContext.setOptimizationLevel(-1);
-                            rhinoContext.setLanguageVersion(org.mozilla.javascript.Context.VERSION_ES6);
-                            Function func = (Function) executor;
-                            Scriptable scope = apiHelper.getScope();
-                            // Convert String[] to JavaScript array
-                            Scriptable jsArgs = rhinoContext.newArray(scope, args.length);
-                            for (int i = 0; i < args.length; i++) {
-                                // Ensure we pass a proper String, not ConsString
-                                jsArgs.put(i, jsArgs, args[i] != null ? args[i].toString() : "");
-                            }
-                            Object result = func.call(rhinoContext, scope, scope, new Object[]{sender, jsArgs});
-                            return result instanceof Boolean ? (Boolean) result : true;
-                        } finally {
-                            org.mozilla.javascript.Context.exit();
-                        }
-                    }
-                    return true;
+                    return callExecutor(name, executor, sender, args);
                 } catch (Exception e) {
                     plugin.getLogger().severe("Error executing JS command '" + name + "': " + e.getMessage());
                     e.printStackTrace();
@@ -198,4 +155,26 @@ public class CommandAPI extends BaseAPI {
             e.printStackTrace();
         }
     }
+    
+    /**
+     * Call a JS command executor with the arguments converted to a JavaScript array
+     */
+    private boolean callExecutor(String name, Object executor, CommandSender sender, String[] args) {
+        Scriptable scope = apiHelper.getScope();
+        if (!(executor instanceof Function) || scope == null) {
+            return true;
+        }
+        
+        Function func = (Function) executor;
+        Object result = MCJSContextFactory.getInstance().callWithTimeLimit(apiHelper.getPluginName(), "command /" + name, cx -> {
+            // Convert String[] to JavaScript array
+            Scriptable jsArgs = cx.newArray(scope, args.length);
+            for (int i = 0; i < args.length; i++) {
+                // Ensure we pass a proper String, not ConsString
+                jsArgs.put(i, jsArgs, args[i] != null ? args[i].toString() : "");
+            }
+            return func.call(cx, scope, scope, new Object[]{sender, jsArgs});
+        });
+        return result instanceof Boolean ? (Boolean) result : true;
+    }
 }
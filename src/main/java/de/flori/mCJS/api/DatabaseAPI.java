@@ -1,5 +1,6 @@
 package de.flori.mCJS.api;
 
+import org.bukkit.Bukkit;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
@@ -9,50 +10,270 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * API module for SQLite database operations
+ * API module for SQLite database operations.
+ * Connections are kept open per database file by DatabasePool (WAL mode, cached prepared statements);
+ * queries run on its pooled read connections.
+ * Writes from the main thread run directly; writes from other threads go through the database's
+ * DatabaseWriter so that concurrent writers share commits instead of contending for the lock.
+ * Ad-hoc statements (execute) run in autocommit mode outside both.
  */
 public class DatabaseAPI extends BaseAPI {
+    // Cursors of this plugin that are still open (closed when the plugin is unloaded)
+    private final java.util.Set<QueryCursor> openCursors = java.util.concurrent.ConcurrentHashMap.newKeySet();
+    
+    /**
+     * Called for every row of queryEach/forEachRow; return false to stop
+     */
+    @FunctionalInterface
+    public interface RowVisitor {
+        boolean visit(ResultRow row, long index) throws java.sql.SQLException;
+    }
+    
+    @FunctionalInterface
+    private interface StatementWork<T> {
+        T run(java.sql.PreparedStatement stmt) throws java.sql.SQLException;
+    }
+    
+    private final APIHelper apiHelper;
     
     public DatabaseAPI(JavaPlugin plugin) {
+        this(plugin, null);
+    }
+    
+    public DatabaseAPI(JavaPlugin plugin, APIHelper apiHelper) {
         super(plugin);
+        this.apiHelper = apiHelper;
     }
     
-    private java.sql.Connection getDatabaseConnection(String dbName) throws java.sql.SQLException {
-        File dbFile = new File(plugin.getDataFolder(), dbName + ".db");
-        return java.sql.DriverManager.getConnection("jdbc:sqlite:" + dbFile.getAbsolutePath());
+    private File getDatabaseFile(String dbName) {
+        return new File(plugin.getDataFolder(), dbName + ".db");
+    }
+
+    // Run a write as one transaction, on this thread if it is the main or a writer thread, else through the writer.
+    // Also inline if this thread already holds the database (a write from inside DatabasePool.with work):
+    // the writer would wait for that lock while this thread waits for the writer.
+    private <T> T write(String dbName, DatabasePool.SQLWork<T> work) throws java.sql.SQLException {
+        File file = getDatabaseFile(dbName);
+        if (Bukkit.getServer() == null || Bukkit.isPrimaryThread() || DatabaseWriter.isWriterThread()
+                || DatabasePool.isHeldByCurrentThread(file)) {
+            return DatabasePool.transaction(file, work);
+        }
+        return DatabaseWriter.await(DatabaseWriter.submit(file, work));
+    }
+
+    // Run a statement inside DatabasePool.with/read and record its time for /jsdb stats and the slow-query log
+    private <T> T timed(DatabasePool.Database db, String sql, QueryLog.Timed<T> work) throws java.sql.SQLException {
+        return QueryLog.time(plugin.getLogger(), db, apiHelper != null ? apiHelper.getPluginName() : null, sql, work);
+    }
+
+    // Templates (cached = true) come from the statement cache. SQL without bound parameters usually has its values
+    // pasted in, so every variant is a new text: it is prepared for this call only and does not evict the templates.
+    private static <T> T withStatement(DatabasePool.Database db, String sql, boolean cached, StatementWork<T> work) throws java.sql.SQLException {
+        if (cached) {
+            return work.run(db.prepare(sql));
+        }
+        try (java.sql.PreparedStatement stmt = db.getConnection().prepareStatement(sql)) {
+            return work.run(stmt);
+        }
+    }
+
+    /**
+     * Queue work that writes to dbName on its writer thread; the future completes once it is committed.
+     * DatabaseAPI write methods called by the work join the writer's current group commit.
+     */
+    public <T> java.util.concurrent.CompletableFuture<T> writeAsync(String dbName, java.util.concurrent.Callable<T> work) {
+        return DatabaseWriter.submit(getDatabaseFile(dbName), db -> {
+            try {
+                return work.call();
+            } catch (java.sql.SQLException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new java.sql.SQLException(e);
+            }
+        });
     }
 
     public void executeSQL(String dbName, String sql) {
-        try (java.sql.Connection conn = getDatabaseConnection(dbName);
-             java.sql.Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
+        try {
+            execute(dbName, sql);
         } catch (Exception e) {
             plugin.getLogger().severe("Error executing SQL '" + sql + "': " + e.getMessage());
             e.printStackTrace();
         }
     }
 
+    /**
+     * Execute a SQL template with bound parameters (? placeholders) and return the number of changed rows.
+     * The template is prepared once and reused for every call with the same text.
+     */
+    public int executeSQL(String dbName, String sql, Object[] params) {
+        try {
+            return executeUpdate(dbName, sql, params);
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error executing SQL '" + sql + "': " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
     public List<Map<String, Object>> querySQL(String dbName, String sql) {
-        List<Map<String, Object>> results = new ArrayList<>();
-        try (java.sql.Connection conn = getDatabaseConnection(dbName);
-             java.sql.Statement stmt = conn.createStatement();
-             java.sql.ResultSet rs = stmt.executeQuery(sql)) {
-
-            java.sql.ResultSetMetaData metaData = rs.getMetaData();
-            int columnCount = metaData.getColumnCount();
-
-            while (rs.next()) {
-                Map<String, Object> row = new HashMap<>();
-                for (int i = 1; i <= columnCount; i++) {
-                    row.put(metaData.getColumnName(i), rs.getObject(i));
+        return querySQL(dbName, sql, null);
+    }
+
+    /**
+     * Run a SQL template with bound parameters (? placeholders)
+     */
+    public List<Map<String, Object>> querySQL(String dbName, String sql, Object[] params) {
+        try {
+            return query(dbName, sql, params);
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error querying SQL '" + sql + "': " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Execute a statement; errors are thrown (used by the async variants)
+     */
+    public void execute(String dbName, String sql) throws java.sql.SQLException {
+        // Autocommit, not write(): VACUUM, ATTACH/DETACH and some pragmas fail inside a transaction
+        DatabasePool.with(getDatabaseFile(dbName), db -> {
+            // Ad-hoc statements (DDL, deletes with inline values) are not worth caching
+            try (java.sql.Statement stmt = db.getConnection().createStatement()) {
+                timed(db, sql, () -> stmt.execute(sql));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Execute a SQL template with bound parameters and return the number of changed rows; errors are thrown
+     */
+    public int executeUpdate(String dbName, String sql, Object[] params) throws java.sql.SQLException {
+        return write(dbName, db -> timed(db, sql, () -> withStatement(db, sql, params != null,
+                stmt -> bind(stmt, params, 0).executeUpdate())));
+    }
+
+    /**
+     * Run a query and return all rows; errors are thrown (used by the async variants)
+     */
+    public List<Map<String, Object>> query(String dbName, String sql) throws java.sql.SQLException {
+        return query(dbName, sql, null);
+    }
+
+    public List<Map<String, Object>> query(String dbName, String sql, Object[] params) throws java.sql.SQLException {
+        return DatabasePool.read(getDatabaseFile(dbName), db -> timed(db, sql, () -> withStatement(db, sql, params != null, stmt -> {
+            List<Map<String, Object>> results = new ArrayList<>();
+            try (java.sql.ResultSet rs = bind(stmt, params, 0).executeQuery()) {
+                java.sql.ResultSetMetaData metaData = rs.getMetaData();
+                int columnCount = metaData.getColumnCount();
+
+                while (rs.next()) {
+                    Map<String, Object> row = new HashMap<>();
+                    for (int i = 1; i <= columnCount; i++) {
+                        row.put(metaData.getColumnName(i), rs.getObject(i));
+                    }
+                    results.add(row);
+                }
+            }
+            return results;
+        })));
+    }
+
+    // ===== STREAMING QUERIES =====
+    // No map per row: rows are ResultRow views (values by column index or name) or columnar arrays
+
+    /**
+     * Visit the rows of a query one at a time (one reused row object). Returns the number of rows visited.
+     */
+    public long forEachRow(String dbName, String sql, RowVisitor visitor) throws java.sql.SQLException {
+        return forEachRow(dbName, sql, null, visitor);
+    }
+
+    public long forEachRow(String dbName, String sql, Object[] params, RowVisitor visitor) throws java.sql.SQLException {
+        // On a pooled read connection, so the visitor (JS) does not hold the shared connection's lock;
+        // inside DatabasePool.with it reads on the held connection and sees the uncommitted rows like query() does.
+        return DatabasePool.read(getDatabaseFile(dbName), db -> withStatement(db, sql, params != null, stmt -> {
+            long index = 0;
+            // Only the query is timed, not the visitor (SQLite steps to the first row here)
+            try (java.sql.ResultSet rs = timed(db, sql, () -> bind(stmt, params, 0).executeQuery())) {
+                ResultRow row = ResultRow.forResultSet(rs);
+                while (rs.next()) {
+                    row.load(rs);
+                    if (!visitor.visit(row, index++)) {
+                        break;
+                    }
                 }
-                results.add(row);
             }
+            return index;
+        }));
+    }
+
+    /**
+     * Run a query and return the rows in columnar form (one value array per row, shared column names)
+     */
+    public ColumnarResult queryColumns(String dbName, String sql) {
+        return queryColumns(dbName, sql, null);
+    }
+
+    public ColumnarResult queryColumns(String dbName, String sql, Object[] params) {
+        try {
+            return readColumns(dbName, sql, params);
         } catch (Exception e) {
             plugin.getLogger().severe("Error querying SQL '" + sql + "': " + e.getMessage());
             e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * queryColumns that throws on errors (used by the async variants)
+     */
+    public ColumnarResult readColumns(String dbName, String sql) throws java.sql.SQLException {
+        return readColumns(dbName, sql, null);
+    }
+
+    public ColumnarResult readColumns(String dbName, String sql, Object[] params) throws java.sql.SQLException {
+        return DatabasePool.read(getDatabaseFile(dbName), db -> timed(db, sql, () -> withStatement(db, sql, params != null, stmt -> {
+            try (java.sql.ResultSet rs = bind(stmt, params, 0).executeQuery()) {
+                return ColumnarResult.read(rs);
+            }
+        })));
+    }
+
+    /**
+     * Open a lazy cursor over a query (rows are read as you iterate). Returns null on errors.
+     */
+    public QueryCursor openCursor(String dbName, String sql) {
+        return openCursor(dbName, sql, null);
+    }
+
+    public QueryCursor openCursor(String dbName, String sql, Object[] params) {
+        try {
+            QueryCursor[] cursor = new QueryCursor[1];
+            cursor[0] = new QueryCursor(DatabasePool.openReader(getDatabaseFile(dbName)), sql, params,
+                () -> openCursors.remove(cursor[0]));
+            openCursors.add(cursor[0]);
+            return cursor[0];
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error opening cursor for SQL '" + sql + "': " + e.getMessage());
+            e.printStackTrace();
+            return null;
         }
-        return results;
+    }
+
+    /**
+     * Close the cursors left open by the plugin (called when it is unloaded). Returns how many were open.
+     */
+    public int shutdown() {
+        int open = 0;
+        for (QueryCursor cursor : openCursors) {
+            cursor.close();
+            open++;
+        }
+        openCursors.clear();
+        return open;
     }
 
     public void createTable(String dbName, String tableName, Map<String, String> columns) {
@@ -67,11 +288,66 @@ public class DatabaseAPI extends BaseAPI {
         executeSQL(dbName, sql.toString());
     }
 
+    /**
+     * Create an index on columns of a table (if it does not exist) and return its name, idx_<table>_<columns>
+     */
+    public String createIndex(String dbName, String tableName, List<String> columns) {
+        String indexName = "idx_" + tableName + "_" + String.join("_", columns);
+        createIndex(dbName, indexName, tableName, columns, false);
+        return indexName;
+    }
+
+    public void createIndex(String dbName, String indexName, String tableName, List<String> columns, boolean unique) {
+        executeSQL(dbName, "CREATE " + (unique ? "UNIQUE " : "") + "INDEX IF NOT EXISTS " + indexName
+            + " ON " + tableName + " (" + String.join(", ", columns) + ")");
+    }
+
+    public void dropIndex(String dbName, String indexName) {
+        executeSQL(dbName, "DROP INDEX IF EXISTS " + indexName);
+    }
+
+    /**
+     * Names of the indexes of a table (including the automatic ones for primary keys and unique columns)
+     */
+    public List<String> getIndexes(String dbName, String tableName) {
+        List<String> indexes = new ArrayList<>();
+        for (Map<String, Object> row : querySQL(dbName, "SELECT name FROM sqlite_master WHERE type = 'index' AND tbl_name = ?", new Object[] {tableName})) {
+            indexes.add(String.valueOf(row.get("name")));
+        }
+        return indexes;
+    }
+
+    /**
+     * The EXPLAIN QUERY PLAN lines of a query, e.g. to check that it uses an index; empty on errors
+     */
+    public List<String> explainQuery(String dbName, String sql) {
+        try {
+            return DatabasePool.read(getDatabaseFile(dbName), db -> QueryLog.explain(db, sql));
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error explaining SQL '" + sql + "': " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
     public void insertData(String dbName, String tableName, Map<String, Object> data) {
         insertDataAndGetId(dbName, tableName, data);
     }
 
     public long insertDataAndGetId(String dbName, String tableName, Map<String, Object> data) {
+        try {
+            return insertRow(dbName, tableName, data);
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error inserting data: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    /**
+     * Insert (or replace) one row and return its id; errors are thrown (used by the async variants)
+     */
+    public long insertRow(String dbName, String tableName, Map<String, Object> data) throws java.sql.SQLException {
         StringBuilder columns = new StringBuilder();
         StringBuilder values = new StringBuilder();
         List<Object> params = new ArrayList<>();
@@ -90,37 +366,45 @@ public class DatabaseAPI extends BaseAPI {
 
         String sql = "INSERT OR REPLACE INTO " + tableName + " (" + columns + ") VALUES (" + values + ")";
 
-        try (java.sql.Connection conn = getDatabaseConnection(dbName);
-             java.sql.PreparedStatement stmt = conn.prepareStatement(sql, java.sql.Statement.RETURN_GENERATED_KEYS)) {
-
+        return write(dbName, db -> {
+            java.sql.PreparedStatement stmt = db.prepare(sql);
             for (int i = 0; i < params.size(); i++) {
-                stmt.setObject(i + 1, params.get(i));
-            }
-            stmt.executeUpdate();
-            
-            // Get the generated ID
-            try (java.sql.ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    return generatedKeys.getLong(1);
-                }
+                stmt.setObject(i + 1, toSqlValue(params.get(i)));
             }
-            
-            // Fallback: use last_insert_rowid()
-            try (java.sql.Statement stmt2 = conn.createStatement();
-                 java.sql.ResultSet rs = stmt2.executeQuery("SELECT last_insert_rowid()")) {
-                if (rs.next()) {
-                    return rs.getLong(1);
-                }
+            timed(db, sql, stmt::executeUpdate);
+
+            // Still holding the connection, so this is the row we just inserted
+            try (java.sql.ResultSet rs = db.prepare("SELECT last_insert_rowid()").executeQuery()) {
+                return rs.next() ? rs.getLong(1) : -1L;
             }
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error inserting data: " + e.getMessage());
-            e.printStackTrace();
-        }
-        return -1;
+        });
     }
     
     // ===== EXTENDED DATABASE OPERATIONS =====
     public void updateData(String dbName, String tableName, Map<String, Object> data, String whereClause) {
+        updateData(dbName, tableName, data, whereClause, null);
+    }
+
+    /**
+     * Update with a where clause template, e.g. updateData(db, "stats", data, "uuid = ?", [uuid])
+     */
+    public void updateData(String dbName, String tableName, Map<String, Object> data, String whereClause, Object[] whereParams) {
+        try {
+            updateWhere(dbName, tableName, data, whereClause, whereParams);
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error updating data: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Update the rows matching whereClause and return how many changed; errors are thrown (used by the async variants)
+     */
+    public int updateWhere(String dbName, String tableName, Map<String, Object> data, String whereClause) throws java.sql.SQLException {
+        return updateWhere(dbName, tableName, data, whereClause, null);
+    }
+
+    public int updateWhere(String dbName, String tableName, Map<String, Object> data, String whereClause, Object[] whereParams) throws java.sql.SQLException {
         StringBuilder setClause = new StringBuilder();
         List<Object> params = new ArrayList<>();
         
@@ -134,17 +418,14 @@ public class DatabaseAPI extends BaseAPI {
         
         String sql = "UPDATE " + tableName + " SET " + setClause + " WHERE " + whereClause;
         
-        try (java.sql.Connection conn = getDatabaseConnection(dbName);
-             java.sql.PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
+        // The SET columns vary per call and an inline where clause pastes its values: cache only full templates
+        return write(dbName, db -> withStatement(db, sql, whereParams != null, stmt -> {
             for (int i = 0; i < params.size(); i++) {
-                stmt.setObject(i + 1, params.get(i));
+                stmt.setObject(i + 1, toSqlValue(params.get(i)));
             }
-            stmt.executeUpdate();
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error updating data: " + e.getMessage());
-            e.printStackTrace();
-        }
+            bind(stmt, whereParams, params.size());
+            return timed(db, sql, stmt::executeUpdate);
+        }));
     }
 
     public void deleteData(String dbName, String tableName, String whereClause) {
@@ -152,23 +433,231 @@ public class DatabaseAPI extends BaseAPI {
         executeSQL(dbName, sql);
     }
 
+    /**
+     * Delete with a where clause template; returns the number of deleted rows
+     */
+    public int deleteData(String dbName, String tableName, String whereClause, Object[] whereParams) {
+        return executeSQL(dbName, "DELETE FROM " + tableName + " WHERE " + whereClause, whereParams);
+    }
+
     public int countRows(String dbName, String tableName) {
         return countRows(dbName, tableName, null);
     }
 
     public int countRows(String dbName, String tableName, String whereClause) {
+        return countRows(dbName, tableName, whereClause, null);
+    }
+
+    /**
+     * Count with a where clause template, e.g. countRows(db, "stats", "kills > ?", [10])
+     */
+    public int countRows(String dbName, String tableName, String whereClause, Object[] whereParams) {
         String sql = "SELECT COUNT(*) FROM " + tableName;
         if (whereClause != null && !whereClause.isEmpty()) {
             sql += " WHERE " + whereClause;
         }
         
-        List<Map<String, Object>> results = querySQL(dbName, sql);
-        if (!results.isEmpty()) {
-            Object count = results.get(0).get("COUNT(*)");
-            if (count instanceof Number) {
-                return ((Number) count).intValue();
+        String countSql = sql;
+        // An inline where clause (no parameters) pastes its values, so that text is not cached
+        boolean cached = whereParams != null || whereClause == null || whereClause.isEmpty();
+        try {
+            return DatabasePool.read(getDatabaseFile(dbName), db -> timed(db, countSql, () -> withStatement(db, countSql, cached, stmt -> {
+                try (java.sql.ResultSet rs = bind(stmt, whereParams, 0).executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            })));
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error counting rows in '" + tableName + "': " + e.getMessage());
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    // ===== BATCH OPERATIONS =====
+    // One prepared statement per column set, executed with addBatch/executeBatch in a single transaction
+
+    /**
+     * Insert (or replace) many rows in one transaction. Returns the number of rows written, or -1 if nothing was written.
+     */
+    public int insertBatch(String dbName, String tableName, List<Map<String, Object>> rows) {
+        try {
+            return insertRows(dbName, tableName, rows);
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error inserting batch into '" + tableName + "': " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * Update many rows in one transaction, each identified by the value of keyColumn in the row.
+     * Returns the number of rows changed, or -1 if nothing was changed.
+     */
+    public int updateBatch(String dbName, String tableName, List<Map<String, Object>> rows, String keyColumn) {
+        try {
+            return updateRows(dbName, tableName, rows, keyColumn);
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error updating batch in '" + tableName + "': " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * insertBatch that throws on errors (used by the async variants)
+     */
+    public int insertRows(String dbName, String tableName, List<Map<String, Object>> rows) throws java.sql.SQLException {
+        Map<List<String>, List<Map<String, Object>>> groups = groupByColumns(rows, null);
+        if (groups.isEmpty()) {
+            return 0;
+        }
+        return write(dbName, db -> {
+            int written = 0;
+            for (Map.Entry<List<String>, List<Map<String, Object>>> group : groups.entrySet()) {
+                List<String> columns = group.getKey();
+                String sql = "INSERT OR REPLACE INTO " + tableName + " (" + String.join(", ", columns)
+                    + ") VALUES (" + String.join(", ", java.util.Collections.nCopies(columns.size(), "?")) + ")";
+                written += timed(db, sql, () -> executeBatch(db.prepare(sql), columns, group.getValue()));
+            }
+            return written;
+        });
+    }
+
+    /**
+     * updateBatch that throws on errors (used by the async variants)
+     */
+    public int updateRows(String dbName, String tableName, List<Map<String, Object>> rows, String keyColumn) throws java.sql.SQLException {
+        Map<List<String>, List<Map<String, Object>>> groups = groupByColumns(rows, keyColumn);
+        if (groups.isEmpty()) {
+            return 0;
+        }
+        return write(dbName, db -> {
+            int changed = 0;
+            for (Map.Entry<List<String>, List<Map<String, Object>>> group : groups.entrySet()) {
+                List<String> columns = group.getKey();
+                StringBuilder setClause = new StringBuilder();
+                for (String column : columns) {
+                    if (setClause.length() > 0) setClause.append(", ");
+                    setClause.append(column).append(" = ?");
+                }
+                String sql = "UPDATE " + tableName + " SET " + setClause + " WHERE " + keyColumn + " = ?";
+
+                List<String> parameters = new ArrayList<>(columns);
+                parameters.add(keyColumn);
+                changed += timed(db, sql, () -> executeBatch(db.prepare(sql), parameters, group.getValue()));
+            }
+            return changed;
+        });
+    }
+
+    private static int executeBatch(java.sql.PreparedStatement stmt, List<String> columns, List<Map<String, Object>> rows) throws java.sql.SQLException {
+        int[] results;
+        try {
+            for (Map<String, Object> row : rows) {
+                for (int i = 0; i < columns.size(); i++) {
+                    stmt.setObject(i + 1, toSqlValue(row.get(columns.get(i))));
+                }
+                stmt.addBatch();
+            }
+            results = stmt.executeBatch();
+        } catch (java.sql.SQLException e) {
+            // The statement is cached, do not leave a half-built batch behind
+            stmt.clearBatch();
+            throw e;
+        }
+        int count = 0;
+        for (int result : results) {
+            // SUCCESS_NO_INFO counts as one row
+            count += result >= 0 ? result : 1;
+        }
+        return count;
+    }
+
+    /**
+     * Group rows by their column names so every group can share one statement.
+     * With a key column, the key is left out of the columns and rows without it are skipped.
+     */
+    private Map<List<String>, List<Map<String, Object>>> groupByColumns(List<Map<String, Object>> rows, String keyColumn) {
+        Map<List<String>, List<Map<String, Object>>> groups = new java.util.LinkedHashMap<>();
+        if (rows == null) {
+            return groups;
+        }
+        for (Object element : rows) {
+            if (!(element instanceof Map)) {
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> row = (Map<String, Object>) element;
+            List<String> columns = new ArrayList<>();
+            for (Object key : row.keySet()) {
+                String column = String.valueOf(key);
+                if (!column.equals(keyColumn)) {
+                    columns.add(column);
+                }
+            }
+            if (columns.isEmpty() || (keyColumn != null && !row.containsKey(keyColumn))) {
+                plugin.getLogger().warning("Skipping row without " + (columns.isEmpty() ? "columns" : "key column '" + keyColumn + "'") + " in batch for " + row);
+                continue;
             }
+            groups.computeIfAbsent(columns, k -> new ArrayList<>()).add(row);
+        }
+        return groups;
+    }
+
+    // ===== KEY-VALUE STORES =====
+
+    /**
+     * Open a cached key-value store kept in table kv_<storeName> of dbName; null on error
+     */
+    public KeyValueStore getStore(String dbName, String storeName) {
+        try {
+            return KeyValueStore.open(plugin, getDatabaseFile(dbName), storeName);
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error opening store '" + storeName + "' in " + dbName + ": " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // ===== PARAMETER BINDING =====
+
+    /**
+     * Bind params to the placeholders after the first offset ones; returns the statement
+     */
+    static java.sql.PreparedStatement bind(java.sql.PreparedStatement stmt, Object[] params, int offset) throws java.sql.SQLException {
+        if (params != null) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(offset + i + 1, toSqlValue(params[i]));
+            }
+        }
+        return stmt;
+    }
+
+    /**
+     * Convert a value coming from JavaScript to something the SQLite driver binds correctly
+     */
+    static Object toSqlValue(Object value) {
+        if (value instanceof org.mozilla.javascript.Wrapper) {
+            value = ((org.mozilla.javascript.Wrapper) value).unwrap();
+        }
+        if (value == null || value instanceof org.mozilla.javascript.Undefined) {
+            return null;
+        }
+        if (value instanceof Double) {
+            // JS numbers are doubles; bind whole numbers as integers so they match INTEGER keys
+            double number = (Double) value;
+            if (number == Math.rint(number) && Math.abs(number) < 9.007199254740992E15) {
+                return (long) number;
+            }
+            return value;
+        }
+        if (value instanceof CharSequence) {
+            // Rhino concatenations are ConsStrings
+            return value.toString();
+        }
+        if (value instanceof java.util.UUID) {
+            return value.toString();
         }
-        return 0;
+        return value;
     }
 }
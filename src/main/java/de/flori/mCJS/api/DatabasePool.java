@@ -0,0 +1,269 @@
+package de.flori.mCJS.api;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Long-lived SQLite connections, one per database file, shared by all JS plugins.
+ * Each connection is opened in WAL mode with a set of pragmas tuned for small server databases
+ * and keeps an LRU cache of prepared statements. Access to a connection is serialized with a lock
+ * (not synchronized, so virtual threads waiting for it do not pin their carrier).
+ * Reads (DatabasePool.read) use a small pool of read-only connections next to it, so they do not wait
+ * for writes: in WAL mode readers see the last commit while a write is in progress.
+ * Everything is closed when MC-JS is disabled.
+ */
+public final class DatabasePool {
+    // Prepared statements kept per connection
+    private static final int STATEMENT_CACHE_SIZE = 64;
+    // Idle read connections kept per database file; more are opened while more threads read at once
+    private static final int MAX_IDLE_READERS = 4;
+
+    private static final Map<String, Database> databases = new ConcurrentHashMap<>();
+
+    /**
+     * Work done while holding a database's lock
+     */
+    @FunctionalInterface
+    public interface SQLWork<T> {
+        T run(Database database) throws SQLException;
+    }
+
+    /**
+     * One database file with its connection and statement cache
+     */
+    public static final class Database {
+        private final File file;
+        private final boolean readOnly;
+        // Fair, so a main-thread statement gets the connection between two writer groups
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private final ArrayBlockingQueue<Database> readers = new ArrayBlockingQueue<>(MAX_IDLE_READERS);
+        private volatile boolean closed;
+        private Connection connection;
+        // Access-ordered, so the least recently used statement is closed first
+        private final Map<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > STATEMENT_CACHE_SIZE) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        private Database(File file, boolean readOnly) {
+            this.file = file;
+            this.readOnly = readOnly;
+        }
+
+        /**
+         * The connection (only valid inside DatabasePool.with or DatabasePool.read)
+         */
+        public Connection getConnection() throws SQLException {
+            if (connection == null || connection.isClosed()) {
+                connection = readOnly ? openReader(file) : open(file);
+                statements.clear();
+            }
+            return connection;
+        }
+
+        /**
+         * A cached prepared statement for sql with its parameters cleared (only valid inside DatabasePool.with or DatabasePool.read)
+         */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            Connection conn = getConnection();
+            PreparedStatement stmt = statements.get(sql);
+            if (stmt == null || stmt.isClosed()) {
+                stmt = conn.prepareStatement(sql);
+                statements.put(sql, stmt);
+            } else {
+                stmt.clearParameters();
+            }
+            return stmt;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        private void close() {
+            lock.lock();
+            try {
+                for (PreparedStatement stmt : statements.values()) {
+                    closeQuietly(stmt);
+                }
+                statements.clear();
+                if (connection != null) {
+                    connection.close();
+                }
+            } catch (SQLException e) {
+                // Closing anyway
+            } finally {
+                connection = null;
+                lock.unlock();
+            }
+        }
+
+        private void closeReaders() {
+            Database reader;
+            while ((reader = readers.poll()) != null) {
+                reader.close();
+            }
+        }
+    }
+
+    private DatabasePool() {
+    }
+
+    /**
+     * Run work on the connection of a database file, opening it on first use
+     */
+    public static <T> T with(File file, SQLWork<T> work) throws SQLException {
+        Database database = database(file);
+        database.lock.lock();
+        try {
+            return work.run(database);
+        } finally {
+            database.lock.unlock();
+        }
+    }
+
+    /**
+     * Run read-only work on a pooled read connection of a database file, without waiting for writes.
+     * A thread inside DatabasePool.with for the file reads on that connection instead, so it sees its own uncommitted writes.
+     */
+    public static <T> T read(File file, SQLWork<T> work) throws SQLException {
+        Database database = database(file);
+        if (database.lock.isHeldByCurrentThread()) {
+            return work.run(database);
+        }
+        Database reader = database.readers.poll();
+        if (reader == null) {
+            reader = new Database(file, true);
+        }
+        try {
+            return work.run(reader);
+        } finally {
+            if (!database.readers.offer(reader)) {
+                reader.close();
+            } else if (database.closed) {
+                // Returned while closeAll ran
+                database.closeReaders();
+            }
+        }
+    }
+
+    private static Database database(File file) {
+        return databases.computeIfAbsent(file.getAbsolutePath(), k -> new Database(file, false));
+    }
+
+    /**
+     * Run work in one transaction: committed if it returns, rolled back if it throws.
+     * Inside another transaction on the same connection it becomes a savepoint of that transaction.
+     * Errors (e.g. a script timeout) roll back as well, so a partial transaction is never committed.
+     */
+    public static <T> T transaction(File file, SQLWork<T> work) throws SQLException {
+        return with(file, database -> {
+            Connection conn = database.getConnection();
+            if (!conn.getAutoCommit()) {
+                java.sql.Savepoint savepoint = conn.setSavepoint();
+                try {
+                    T result = work.run(database);
+                    conn.releaseSavepoint(savepoint);
+                    return result;
+                } catch (Throwable t) {
+                    try {
+                        conn.rollback(savepoint);
+                        conn.releaseSavepoint(savepoint);
+                    } catch (SQLException rollbackError) {
+                        t.addSuppressed(rollbackError);
+                    }
+                    throw t;
+                }
+            }
+            conn.setAutoCommit(false);
+            try {
+                T result = work.run(database);
+                conn.commit();
+                return result;
+            } catch (Throwable t) {
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackError) {
+                    t.addSuppressed(rollbackError);
+                }
+                throw t;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        });
+    }
+
+    /**
+     * Whether the current thread is inside DatabasePool.with for a database file
+     */
+    public static boolean isHeldByCurrentThread(File file) {
+        Database database = databases.get(file.getAbsolutePath());
+        return database != null && database.lock.isHeldByCurrentThread();
+    }
+
+    /**
+     * Close all connections (called when MC-JS is disabled)
+     */
+    public static void closeAll(Logger logger) {
+        for (Database database : databases.values()) {
+            database.closed = true;
+            database.close();
+            database.closeReaders();
+        }
+        if (!databases.isEmpty() && logger != null) {
+            logger.info("Closed " + databases.size() + " database connection(s)");
+        }
+        databases.clear();
+    }
+
+    /**
+     * Open a separate read-only connection to a database file (for cursors that stay open across calls).
+     * The caller closes it.
+     */
+    public static Connection openReader(File file) throws SQLException {
+        Connection conn = open(file);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA query_only=ON");
+        }
+        return conn;
+    }
+
+    private static Connection open(File file) throws SQLException {
+        Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+        try (Statement stmt = conn.createStatement()) {
+            // Readers do not block the writer and commits only fsync at checkpoints
+            stmt.execute("PRAGMA journal_mode=WAL");
+            stmt.execute("PRAGMA synchronous=NORMAL");
+            // Wait for locks held by other connections (e.g. an external tool) instead of failing
+            stmt.execute("PRAGMA busy_timeout=5000");
+            stmt.execute("PRAGMA temp_store=MEMORY");
+            // 8 MB page cache
+            stmt.execute("PRAGMA cache_size=-8000");
+        }
+        return conn;
+    }
+
+    private static void closeQuietly(Statement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            // Ignore
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package de.flori.mCJS.api;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single writer thread per SQLite database. Writes queued from any thread are drained in groups:
+ * every group runs in one transaction (one commit and sync), each write in its own savepoint so a failing
+ * write only rolls back itself. The more writes are queued, the more share a commit; a group is committed early
+ * once it has held the connection for MAX_GROUP_NANOS. Reads do not wait for groups (see DatabasePool.read).
+ * Callers get a future that completes once their write is committed.
+ */
+public final class DatabaseWriter implements Runnable {
+    // Upper bound of writes committed together
+    private static final int MAX_GROUP_SIZE = 512;
+    // A group that has run this long is committed early and the rest goes into the next transaction,
+    // so main-thread statements waiting for the connection get it in between (its lock is fair)
+    private static final long MAX_GROUP_NANOS = 10_000_000L;
+    private static final Write STOP = new Write(null);
+    private static final ThreadLocal<Boolean> WRITER_THREAD = ThreadLocal.withInitial(() -> false);
+
+    private static final Map<String, DatabaseWriter> writers = new ConcurrentHashMap<>();
+    // Held while queueing a write and while stopping, so no write is queued behind STOP or on a new writer after closeAll
+    private static final ReentrantLock lifecycle = new ReentrantLock();
+    private static boolean closed;
+
+    private final File file;
+    private final LinkedBlockingQueue<Write> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    // Set (holding lifecycle) once run() has taken its last write
+    private boolean exited;
+
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+
+    private static final class Write {
+        final DatabasePool.SQLWork<?> work;
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        Write(DatabasePool.SQLWork<?> work) {
+            this.work = work;
+        }
+    }
+
+    private DatabaseWriter(File file) {
+        this.file = file;
+        this.thread = new Thread(this, "MC-JS DB Writer (" + file.getName() + ")");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Queue a write for a database file; the future completes after the write was committed
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CompletableFuture<T> submit(File file, DatabasePool.SQLWork<T> work) {
+        Write write = new Write(work);
+        lifecycle.lock();
+        try {
+            if (closed) {
+                return CompletableFuture.failedFuture(new SQLException("Database writer for " + file.getName() + " is shut down"));
+            }
+            String key = file.getAbsolutePath();
+            DatabaseWriter current = writers.get(key);
+            if (current != null && current.exited) {
+                // Its thread was interrupted; start a fresh one
+                writers.remove(key, current);
+            }
+            DatabaseWriter writer = writers.computeIfAbsent(key, k -> {
+                DatabaseWriter created = new DatabaseWriter(file);
+                created.thread.start();
+                return created;
+            });
+            writer.queue.add(write);
+        } finally {
+            lifecycle.unlock();
+        }
+        return (CompletableFuture<T>) write.future;
+    }
+
+    /**
+     * Wait for a queued write and rethrow its error
+     */
+    public static <T> T await(CompletableFuture<T> future) throws SQLException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SQLException(cause);
+        }
+    }
+
+    /**
+     * True on a writer thread (writes there run directly inside the current group)
+     */
+    public static boolean isWriterThread() {
+        return WRITER_THREAD.get();
+    }
+
+    /**
+     * Commit everything that is still queued and stop all writer threads (called when MC-JS is disabled).
+     * Writes submitted afterwards fail instead of starting a new writer.
+     */
+    public static void closeAll() {
+        lifecycle.lock();
+        try {
+            closed = true;
+            for (DatabaseWriter writer : writers.values()) {
+                writer.queue.add(STOP);
+            }
+        } finally {
+            lifecycle.unlock();
+        }
+        for (DatabaseWriter writer : writers.values()) {
+            try {
+                writer.thread.join(10000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        writers.clear();
+    }
+
+    public File getFile() { return file; }
+    public int getQueued() { return queue.size(); }
+    public long getWrites() { return writes.sum(); }
+    public long getCommits() { return commits.sum(); }
+
+    /**
+     * Writer of every database that has received async writes
+     */
+    public static List<DatabaseWriter> getWriters() {
+        return new ArrayList<>(writers.values());
+    }
+
+    @Override
+    public void run() {
+        WRITER_THREAD.set(true);
+        List<Write> group = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                group.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(group, MAX_GROUP_SIZE - 1);
+
+            // Writes queued before STOP are still committed
+            int stop = group.indexOf(STOP);
+            if (stop >= 0) {
+                running = false;
+                group.subList(stop, group.size()).clear();
+            }
+            int next = 0;
+            while (next < group.size()) {
+                next = flush(group, next);
+            }
+            group.clear();
+        }
+
+        // Nothing is queued after STOP (submit and closeAll share the lifecycle lock);
+        // only a writer that was interrupted leaves writes here, and none are added once exited is set
+        lifecycle.lock();
+        try {
+            exited = true;
+            Write left;
+            while ((left = queue.poll()) != null) {
+                if (left != STOP) {
+                    left.future.completeExceptionally(new SQLException("Database writer for " + file.getName() + " is shut down"));
+                }
+            }
+        } finally {
+            lifecycle.unlock();
+        }
+    }
+
+    // Commit the writes of group from index start on in one transaction, until MAX_GROUP_NANOS have passed;
+    // returns the index of the first write that was left for the next transaction
+    private int flush(List<Write> group, int start) {
+        Object[] results = new Object[group.size()];
+        Throwable[] errors = new Throwable[group.size()];
+        int end;
+        try {
+            end = DatabasePool.transaction(file, db -> {
+                long begin = System.nanoTime();
+                int i = start;
+                while (i < group.size()) {
+                    try {
+                        // Nested transaction = savepoint of the group transaction
+                        results[i] = DatabasePool.transaction(file, group.get(i).work);
+                    } catch (Exception e) {
+                        errors[i] = e;
+                    }
+                    i++;
+                    if (System.nanoTime() - begin >= MAX_GROUP_NANOS) {
+                        break;
+                    }
+                }
+                return i;
+            });
+        } catch (Throwable t) {
+            // The commit itself failed: nothing of this transaction was written, and the writes after it are dropped too
+            for (Write write : group.subList(start, group.size())) {
+                write.future.completeExceptionally(t);
+            }
+            return group.size();
+        }
+
+        commits.increment();
+        writes.add(end - start);
+        for (int i = start; i < end; i++) {
+            if (errors[i] != null) {
+                group.get(i).future.completeExceptionally(errors[i]);
+            } else {
+                group.get(i).future.complete(results[i]);
+            }
+        }
+        return end;
+    }
+}
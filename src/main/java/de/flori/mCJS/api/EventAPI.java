@@ -1,5 +1,8 @@
 package de.flori.mCJS.api;
 
+import de.flori.mCJS.MCJSContextFactory;
+import de.flori.mCJS.MCJSSettings;
+import org.bukkit.event.Cancellable;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventException;
 import org.bukkit.event.EventPriority;
@@ -21,34 +24,121 @@ import java.util.concurrent.ConcurrentHashMap;
 public class EventAPI extends BaseAPI {
     private final APIHelper apiHelper;
     
-    // Event handler storage - universal listener handles all events
-    // Use ConcurrentHashMap for thread-safety during plugin reloads
-    private static final Map<Class<? extends Event>, Map<EventHandlerContext, List<EventHandlerInfo>>> globalEventHandlers = new ConcurrentHashMap<>();
+    // Event handler storage - universal listener handles all events.
+    // Handlers are kept per registered event class; every change publishes a new immutable DispatchTable
+    // (copy-on-write) so firing an event never takes a lock.
+    private static final Object registrationLock = new Object();
+    private static final Map<Class<? extends Event>, Set<EventHandlerInfo>> globalEventHandlers = new HashMap<>();
+    private static volatile DispatchTable dispatchTable = new DispatchTable(Collections.emptyMap());
+    private static long handlerSequence = 0;
     private static JavaPlugin listenerPlugin;
     
     // Reference to InventoryAPI for inventory event handling
     private static InventoryAPI inventoryAPI;
 
     private static class EventHandlerInfo {
-        final Object handler;
+        final Class<? extends Event> eventClass;
+        final EventHandlerContext context;
+        final Function handler;
         final EventPriority priority;
+        final boolean ignoreCancelled;
+        final long sequence;
+        // Bukkit listener this handler is dispatched from
+        final ListenerRegistration registration;
+        // Entry point name for the profiler and timeout messages, built once at registration
+        final String label;
         
-        EventHandlerInfo(Object handler, EventPriority priority) {
+        EventHandlerInfo(Class<? extends Event> eventClass, EventHandlerContext context, Function handler, EventPriority priority,
+                         boolean ignoreCancelled, long sequence, ListenerRegistration registration, String label) {
+            this.eventClass = eventClass;
+            this.label = label;
+            this.context = context;
             this.handler = handler;
             this.priority = priority;
+            this.ignoreCancelled = ignoreCancelled;
+            this.sequence = sequence;
+            this.registration = registration;
+        }
+    }
+    
+    /**
+     * One Bukkit listener registered on a HandlerList at one priority.
+     * It is unregistered again when the last JS handler using it is removed, unless it is pinned
+     * (registrations without a JS function, e.g. the inventory routing, stay for the server lifetime).
+     */
+    private static class ListenerRegistration {
+        final org.bukkit.event.HandlerList handlerList;
+        final EventPriority priority;
+        final Listener listener = new Listener() {};
+        int handlerCount;
+        boolean pinned;
+        
+        ListenerRegistration(org.bukkit.event.HandlerList handlerList, EventPriority priority) {
+            this.handlerList = handlerList;
+            this.priority = priority;
+        }
+    }
+    
+    /**
+     * Immutable snapshot of all registered handlers.
+     * The flat handler arrays (one per priority) for a concrete event class are resolved once
+     * on first use and cached for the lifetime of the snapshot.
+     */
+    private static class DispatchTable {
+        private static final EventHandlerInfo[] NO_HANDLERS = new EventHandlerInfo[0];
+        private static final EventPriority[] PRIORITIES = EventPriority.values();
+        
+        final Map<Class<? extends Event>, EventHandlerInfo[]> handlersByClass;
+        final Map<Class<?>, EventHandlerInfo[][]> resolved = new ConcurrentHashMap<>();
+        
+        DispatchTable(Map<Class<? extends Event>, EventHandlerInfo[]> handlersByClass) {
+            this.handlersByClass = handlersByClass;
+        }
+        
+        /**
+         * Get the handlers for an event class, indexed by EventPriority ordinal
+         */
+        EventHandlerInfo[][] getHandlers(Class<?> eventClass) {
+            EventHandlerInfo[][] handlers = resolved.get(eventClass);
+            if (handlers == null) {
+                handlers = resolved.computeIfAbsent(eventClass, this::resolve);
+            }
+            return handlers;
+        }
+        
+        private EventHandlerInfo[][] resolve(Class<?> eventClass) {
+            List<EventHandlerInfo> matching = new ArrayList<>();
+            for (Map.Entry<Class<? extends Event>, EventHandlerInfo[]> entry : handlersByClass.entrySet()) {
+                // Handlers registered for a superclass also receive subclass events
+                if (entry.getKey().isAssignableFrom(eventClass)) {
+                    matching.addAll(Arrays.asList(entry.getValue()));
+                }
+            }
+            // Keep registration order within a priority
+            matching.sort(Comparator.comparingLong(info -> info.sequence));
+            
+            EventHandlerInfo[][] byPriority = new EventHandlerInfo[PRIORITIES.length][];
+            for (EventPriority priority : PRIORITIES) {
+                byPriority[priority.ordinal()] = matching.stream()
+                    .filter(info -> info.priority == priority)
+                    .toArray(EventHandlerInfo[]::new);
+            }
+            return byPriority;
         }
     }
 
-    // Map to track which event classes have been registered
-    // Use ConcurrentHashMap-backed set for thread-safety
-    private static final Set<Class<? extends Event>> registeredEventClasses = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    // Map to track which priorities have been registered per HandlerList (guarded by itself)
+    private static final Map<org.bukkit.event.HandlerList, Map<EventPriority, ListenerRegistration>> registeredEventClasses = new IdentityHashMap<>();
+    
+    // Handlers registered through this instance, i.e. by one JS plugin (guarded by registrationLock)
+    private final List<EventHandlerInfo> ownedHandlers = new ArrayList<>();
     
     public EventAPI(JavaPlugin plugin, APIHelper apiHelper) {
         super(plugin);
         this.apiHelper = apiHelper;
         
         // Initialize listener plugin reference
-        synchronized (globalEventHandlers) {
+        synchronized (registrationLock) {
             if (listenerPlugin == null) {
                 listenerPlugin = plugin;
             }
@@ -64,6 +154,21 @@ public class EventAPI extends BaseAPI {
     
     // ===== EVENT REGISTRATION METHODS =====
     public void registerEvent(String eventClassName, Object handler) {
+        registerEvent(eventClassName, handler, EventPriority.NORMAL, false);
+    }
+    
+    /**
+     * Register an event handler with a priority ("LOWEST" ... "MONITOR" or an EventPriority)
+     */
+    public void registerEvent(String eventClassName, Object handler, Object priority) {
+        registerEvent(eventClassName, handler, priority, false);
+    }
+    
+    /**
+     * Register an event handler with a priority and ignoreCancelled flag.
+     * Handlers with ignoreCancelled = true are skipped for cancelled events without calling into JavaScript.
+     */
+    public void registerEvent(String eventClassName, Object handler, Object priority, boolean ignoreCancelled) {
         debug("Registering event: " + eventClassName);
         try {
             Class<?> eventClass = null;
@@ -170,7 +275,7 @@ public class EventAPI extends BaseAPI {
                 plugin.getLogger().info("Registering event: " + eventClassName + " -> " + clazz.getName());
                 debug("Resolved event class: " + clazz.getName() + " for " + eventClassName);
                 
-                registerEvent(clazz, handler);
+                registerEvent(clazz, handler, parsePriority(priority), ignoreCancelled);
             } else {
                 plugin.getLogger().warning("Class '" + eventClassName + "' is not an Event class.");
             }
@@ -184,15 +289,49 @@ public class EventAPI extends BaseAPI {
         registerEvent(eventClass, handler, EventPriority.NORMAL);
     }
     
-    // Register a specific event class with PaperMC using reflection to find the right method
-    private static void registerEventClass(Class<? extends Event> eventClass, JavaPlugin plugin) {
+    /**
+     * Convert a priority given from JavaScript (EventPriority or name) to an EventPriority
+     */
+    private EventPriority parsePriority(Object priority) {
+        if (priority instanceof EventPriority) {
+            return (EventPriority) priority;
+        }
+        if (priority == null) {
+            return EventPriority.NORMAL;
+        }
+        try {
+            return EventPriority.valueOf(priority.toString().trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Unknown event priority '" + priority + "', using NORMAL. Available: LOWEST, LOW, NORMAL, HIGH, HIGHEST, MONITOR");
+            return EventPriority.NORMAL;
+        }
+    }
+    
+    // Register a specific event class and priority with PaperMC using reflection to find the right method.
+    // Registrations are tracked per HandlerList so classes sharing a HandlerList are only registered once.
+    // A JS handler (counted = true) keeps the registration alive until it is released again, otherwise it is pinned.
+    private static ListenerRegistration registerEventClass(Class<? extends Event> eventClass, EventPriority priority,
+                                                           JavaPlugin plugin, boolean counted) {
         synchronized (registeredEventClasses) {
-            if (registeredEventClasses.contains(eventClass)) {
-                return; // Already registered
+            org.bukkit.event.HandlerList handlerList;
+            try {
+                handlerList = (org.bukkit.event.HandlerList) eventClass.getMethod("getHandlerList").invoke(null);
+            } catch (Exception e) {
+                plugin.getLogger().severe("Failed to get HandlerList for " + eventClass.getName() + ": " + e.getMessage());
+                return null;
             }
             
+            Map<EventPriority, ListenerRegistration> registrations = registeredEventClasses.computeIfAbsent(handlerList, k -> new EnumMap<>(EventPriority.class));
+            ListenerRegistration registration = registrations.get(priority);
+            if (registration != null) {
+                // Already registered
+                retain(registration, counted);
+                return registration;
+            }
+            registration = new ListenerRegistration(handlerList, priority);
+            
             // Log for debugging
-            plugin.getLogger().info("Attempting to register event class: " + eventClass.getName() + " (is Event.class: " + (eventClass == Event.class) + ")");
+            plugin.getLogger().info("Attempting to register event class: " + eventClass.getName() + " at priority " + priority);
             
             try {
                 // Try to use PaperMC's registerEvent method with Consumer via reflection
@@ -208,42 +347,68 @@ public class EventAPI extends BaseAPI {
                 
                 if (registerEventMethod != null) {
                     // Use the Consumer-based registration
-                    Listener dummyListener = new Listener() {};
+                    Listener dummyListener = registration.listener;
                     java.util.function.Consumer<Event> consumer = (event) -> {
                         // Use executeEventWrapper to prevent duplicate execution
-                        executeEventWrapper(dummyListener, event);
+                        executeEventWrapper(event, priority);
                     };
                     
                     registerEventMethod.invoke(plugin.getServer().getPluginManager(), 
-                        eventClass, dummyListener, EventPriority.NORMAL, consumer, plugin);
+                        eventClass, dummyListener, priority, consumer, plugin);
                 } else {
                     // Fallback: Register event directly using HandlerList
-                    registerEventViaHandlerList(eventClass, plugin);
+                    registerEventViaHandlerList(eventClass, handlerList, registration.listener, priority, plugin);
                 }
                 
-                registeredEventClasses.add(eventClass);
+                registrations.put(priority, registration);
+                retain(registration, counted);
+                return registration;
             } catch (Exception e) {
                 plugin.getLogger().severe("Failed to register event class " + eventClass.getName() + ": " + e.getMessage());
                 e.printStackTrace();
+                return null;
+            }
+        }
+    }
+    
+    // Count a JS handler on a registration or pin it (caller holds registeredEventClasses)
+    private static void retain(ListenerRegistration registration, boolean counted) {
+        if (counted) {
+            registration.handlerCount++;
+        } else {
+            registration.pinned = true;
+        }
+    }
+    
+    // Drop one JS handler from a registration and unregister the Bukkit listener when it was the last one
+    private static void releaseEventClass(ListenerRegistration registration) {
+        synchronized (registeredEventClasses) {
+            registration.handlerCount--;
+            if (registration.handlerCount > 0 || registration.pinned) {
+                return;
+            }
+            
+            registration.handlerList.unregister(registration.listener);
+            Map<EventPriority, ListenerRegistration> registrations = registeredEventClasses.get(registration.handlerList);
+            if (registrations != null) {
+                registrations.remove(registration.priority);
+                if (registrations.isEmpty()) {
+                    registeredEventClasses.remove(registration.handlerList);
+                }
             }
         }
     }
     
     // Register event directly by manipulating HandlerList
-    private static <T extends Event> void registerEventViaHandlerList(Class<T> eventClass, JavaPlugin plugin) {
+    private static <T extends Event> void registerEventViaHandlerList(Class<T> eventClass, org.bukkit.event.HandlerList handlerList,
+                                                                     Listener dummyListener, EventPriority priority, JavaPlugin plugin) {
         try {
-            // Get the HandlerList for this event class
-            java.lang.reflect.Method getHandlerListMethod = eventClass.getMethod("getHandlerList");
-            org.bukkit.event.HandlerList handlerList = (org.bukkit.event.HandlerList) getHandlerListMethod.invoke(null);
-            
-            // Create a listener that will handle this specific event class
-            Listener dummyListener = new Listener() {};
             
             // Create an EventExecutor that will call our wrapper method
             org.bukkit.plugin.EventExecutor executor = new org.bukkit.plugin.EventExecutor() {
                 @Override
                 public void execute(Listener listener, Event event) throws EventException {
-                    executeEventWrapper(listener, event);
+                    executeEventWrapper(event, priority);
                 }
             };
             
@@ -253,9 +418,9 @@ public class EventAPI extends BaseAPI {
                     RegisteredListener.class.getConstructor(Listener.class, 
                         org.bukkit.plugin.EventExecutor.class, EventPriority.class, Plugin.class, boolean.class);
                 
-                // Register only once with NORMAL priority - we'll handle all priorities in dispatchEvent
+                // One registration per priority - handlers of that priority are dispatched from it
                 RegisteredListener registeredListener = constructor.newInstance(
-                    dummyListener, executor, EventPriority.NORMAL, plugin, false
+                    dummyListener, executor, priority, plugin, false
                 );
                 handlerList.register(registeredListener);
                 
@@ -273,9 +438,9 @@ public class EventAPI extends BaseAPI {
                         paramTypes[2] == EventPriority.class &&
                         paramTypes[3] == Plugin.class &&
                         paramTypes[4] == boolean.class) {
-                        // Register only once with NORMAL priority - we'll handle all priorities in dispatchEvent
+                        // One registration per priority - handlers of that priority are dispatched from it
                         RegisteredListener registeredListener = (RegisteredListener) constructor.newInstance(
-                            dummyListener, executor, EventPriority.NORMAL, plugin, false
+                            dummyListener, executor, priority, plugin, false
                         );
                         handlerList.register(registeredListener);
                         plugin.getLogger().info("Successfully registered event class " + eventClass.getName() + " via HandlerList (using reflection)");
@@ -292,168 +457,117 @@ public class EventAPI extends BaseAPI {
         }
     }
     
-    // Track events that are currently being dispatched to prevent duplicate execution
-    private static final Set<Event> eventsBeingDispatched = Collections.synchronizedSet(Collections.newSetFromMap(new java.util.IdentityHashMap<>()));
+    // Track events (and the priorities) that are currently being dispatched on this thread to prevent
+    // duplicate execution. Events are fired and dispatched on the same thread, so no locking is needed.
+    // The value is a bit mask of EventPriority ordinals.
+    private static final ThreadLocal<Map<Event, Integer>> eventsBeingDispatched =
+        ThreadLocal.withInitial(IdentityHashMap::new);
     
-    // Wrapper method that gets the event class from the map and dispatches
-    @SuppressWarnings("unused")
-    private static void executeEventWrapper(Listener listener, Event event) {
-        // Prevent duplicate execution if this event is already being dispatched
-        // This can happen if multiple plugins register the same event class
-        synchronized (eventsBeingDispatched) {
-            if (eventsBeingDispatched.contains(event)) {
-                // Event is already being dispatched, skip
-                if (listenerPlugin != null && listenerPlugin.getConfig().getBoolean("settings.debug-mode", false)) {
-                    listenerPlugin.getLogger().info("[DEBUG] Skipping duplicate event dispatch for " + event.getClass().getSimpleName());
-                }
-                return;
+    // Wrapper method that looks up the handlers for the event class and priority and dispatches
+    private static void executeEventWrapper(Event event, EventPriority priority) {
+        // Special handling for inventory events - these are handled by InventoryAPI (once, at NORMAL priority)
+        if (event instanceof InventoryClickEvent && inventoryAPI != null) {
+            if (priority == EventPriority.NORMAL) {
+                inventoryAPI.handleInventoryClick((InventoryClickEvent) event);
             }
-            eventsBeingDispatched.add(event);
+            return;
         }
         
-        try {
-            // Special handling for inventory events - these are handled by InventoryAPI
-            if (event instanceof InventoryClickEvent && inventoryAPI != null) {
-                inventoryAPI.handleInventoryClick((InventoryClickEvent) event);
-                return;
-            }
-            
-            if (event instanceof InventoryCloseEvent && inventoryAPI != null) {
+        if (event instanceof InventoryCloseEvent && inventoryAPI != null) {
+            if (priority == EventPriority.NORMAL) {
                 inventoryAPI.handleInventoryClose((InventoryCloseEvent) event);
-                return;
             }
-            
-            // Find which event class this handler is for by checking the method map
-            // Since we can't bind parameters, we need to check all registered event classes
-            synchronized (globalEventHandlers) {
-                for (Class<? extends Event> eventClass : globalEventHandlers.keySet()) {
-                    if (eventClass.isInstance(event)) {
-                        // Dispatch once for all priorities - dispatchEvent will filter by priority
-                        dispatchEventForAllPriorities(event);
-                        break; // Only dispatch once per event
-                    }
-                }
+            return;
+        }
+        
+        EventHandlerInfo[] handlers = dispatchTable.getHandlers(event.getClass())[priority.ordinal()];
+        if (handlers.length == 0) {
+            return;
+        }
+        
+        // Prevent duplicate execution if this event is already being dispatched at this priority
+        Map<Event, Integer> dispatching = eventsBeingDispatched.get();
+        int mask = 1 << priority.ordinal();
+        Integer previous = dispatching.get(event);
+        int active = previous != null ? previous : 0;
+        if ((active & mask) != 0) {
+            // Event is already being dispatched, skip
+            if (listenerPlugin != null && MCJSSettings.get().isDebugMode()) {
+                listenerPlugin.getLogger().info("[DEBUG] Skipping duplicate event dispatch for " + event.getClass().getSimpleName());
             }
+            return;
+        }
+        dispatching.put(event, active | mask);
+        
+        try {
+            dispatchEvent(event, handlers);
         } finally {
-            // Remove from tracking set after dispatch completes
-            synchronized (eventsBeingDispatched) {
-                eventsBeingDispatched.remove(event);
+            // Remove from tracking after dispatch completes
+            if (previous == null) {
+                dispatching.remove(event);
+            } else {
+                dispatching.put(event, previous);
             }
         }
     }
     
-    // Dispatch event to all handlers regardless of priority (priority filtering happens inside)
-    private static void dispatchEventForAllPriorities(Event event) {
+    // Dispatch event to the resolved handlers of one priority
+    private static void dispatchEvent(Event event, EventHandlerInfo[] handlers) {
         Class<? extends Event> actualEventClass = event.getClass();
         
+        // Read the settings snapshot once per dispatch
+        MCJSSettings settings = MCJSSettings.get();
+        boolean debug = listenerPlugin != null && settings.isDebugMode();
+        
         // Debug logging (only if any EventAPI instance has debug mode enabled)
-        if (listenerPlugin != null && listenerPlugin.getConfig().getBoolean("settings.debug-mode", false)) {
+        if (debug) {
             listenerPlugin.getLogger().info("[DEBUG] Dispatching event: " + actualEventClass.getSimpleName());
         }
         
-        // Check all registered event classes to see if they match
-        synchronized (globalEventHandlers) {
-            for (Map.Entry<Class<? extends Event>, Map<EventHandlerContext, List<EventHandlerInfo>>> entry : globalEventHandlers.entrySet()) {
-                Class<? extends Event> registeredClass = entry.getKey();
+        for (EventHandlerInfo info : handlers) {
+            // Skip cancelled events before entering Rhino
+            if (info.ignoreCancelled && event instanceof Cancellable && ((Cancellable) event).isCancelled()) {
+                continue;
+            }
+            
+            try {
+                if (debug) {
+                    listenerPlugin.getLogger().info("[DEBUG] Executing event handler for " + actualEventClass.getSimpleName() + 
+                                                  " (priority: " + info.priority + ")");
+                }
                 
-                // Check if the actual event class matches or is a subclass of the registered class
-                if (registeredClass.isAssignableFrom(actualEventClass)) {
-                    Map<EventHandlerContext, List<EventHandlerInfo>> handlersForClass = entry.getValue();
-                    
-                    for (Map.Entry<EventHandlerContext, List<EventHandlerInfo>> contextEntry : handlersForClass.entrySet()) {
-                        EventHandlerContext context = contextEntry.getKey();
-                        List<EventHandlerInfo> handlers = contextEntry.getValue();
-                        
-                        // Execute all handlers for this event (priority is stored in EventHandlerInfo)
-                        for (EventHandlerInfo info : handlers) {
-                            if (info.handler instanceof Function && context.scope != null) {
-                                try {
-                                    if (listenerPlugin != null && listenerPlugin.getConfig().getBoolean("settings.debug-mode", false)) {
-                                        listenerPlugin.getLogger().info("[DEBUG] Executing event handler for " + actualEventClass.getSimpleName() + 
-                                                                      " (priority: " + info.priority + ")");
-                                    }
-                                    
-                                    // Get max execution time from config
-                                    long maxExecutionTime = listenerPlugin != null ? 
-                                        listenerPlugin.getConfig().getLong("performance.max-execution-time", 5000) : 5000;
-                                    
-                                    // Execute with timeout if configured
-                                    if (maxExecutionTime > 0) {
-                                        executeWithTimeout(() -> {
-                                            org.mozilla.javascript.Context rhinoContext = org.mozilla.javascript.Context.enter();
-                                            try {
-                                                int optimizationLevel = listenerPlugin != null ? 
-                                                    listenerPlugin.getConfig().getInt("performance.optimization-level", -1) : -1;
-                                                rhinoContext.setOptimizationLevel(optimizationLevel);
-                                                rhinoContext.setLanguageVersion(org.mozilla.javascript.Context.VERSION_ES6);
-                                                Function func = (Function) info.handler;
-                                                func.call(rhinoContext, context.scope, context.scope, new Object[]{event});
-                                                if (listenerPlugin != null && listenerPlugin.getConfig().getBoolean("settings.debug-mode", false)) {
-                                                    listenerPlugin.getLogger().info("[DEBUG] Event handler execution completed");
-                                                }
-                                            } finally {
-                                                org.mozilla.javascript.Context.exit();
-                                            }
-                                        }, maxExecutionTime, actualEventClass.getSimpleName());
-                                    } else {
-                                        // No timeout
-                                        org.mozilla.javascript.Context rhinoContext = org.mozilla.javascript.Context.enter();
-                                        try {
-                                            int optimizationLevel = listenerPlugin != null ? 
-                                                listenerPlugin.getConfig().getInt("performance.optimization-level", -1) : -1;
-                                            rhinoContext.setOptimizationLevel(optimizationLevel);
-                                            rhinoContext.setLanguageVersion(org.mozilla.javascript.Context.VERSION_ES6);
-                                            Function func = (Function) info.handler;
-                                            func.call(rhinoContext, context.scope, context.scope, new Object[]{event});
-                                            if (listenerPlugin != null && listenerPlugin.getConfig().getBoolean("settings.debug-mode", false)) {
-                                                listenerPlugin.getLogger().info("[DEBUG] Event handler execution completed");
-                                            }
-                                        } finally {
-                                            org.mozilla.javascript.Context.exit();
-                                        }
-                                    }
-                                } catch (Exception e) {
-                                    if (listenerPlugin != null) {
-                                        listenerPlugin.getLogger().severe("Error in JS event handler for " + actualEventClass.getSimpleName() + ": " + e.getMessage());
-                                        if (listenerPlugin.getConfig().getBoolean("settings.debug-mode", false)) {
-                                            listenerPlugin.getLogger().info("[DEBUG] Event handler error details: " + e.getClass().getName());
-                                        }
-                                        e.printStackTrace();
-                                    }
-                                }
-                            }
-                        }
+                // Runs on the calling thread; max-execution-time is enforced by the context factory
+                invokeHandler(info, event, debug);
+            } catch (Exception e) {
+                if (listenerPlugin != null) {
+                    listenerPlugin.getLogger().severe("Error in JS event handler for " + actualEventClass.getSimpleName() + ": " + e.getMessage());
+                    if (debug) {
+                        listenerPlugin.getLogger().info("[DEBUG] Event handler error details: " + e.getClass().getName());
                     }
+                    e.printStackTrace();
                 }
             }
         }
     }
     
-    /**
-     * Execute a runnable with timeout protection
-     */
-    private static void executeWithTimeout(Runnable task, long timeoutMs, String context) {
-        java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newSingleThreadExecutor();
-        java.util.concurrent.Future<?> future = executor.submit(task);
-        try {
-            future.get(timeoutMs, java.util.concurrent.TimeUnit.MILLISECONDS);
-        } catch (java.util.concurrent.TimeoutException e) {
-            future.cancel(true);
-            if (listenerPlugin != null) {
-                listenerPlugin.getLogger().warning("Event handler execution timed out after " + timeoutMs + "ms for " + context);
-            }
-        } catch (Exception e) {
-            if (listenerPlugin != null) {
-                listenerPlugin.getLogger().severe("Error executing timed task for " + context + ": " + e.getMessage());
-                e.printStackTrace();
-            }
-        } finally {
-            executor.shutdown();
+    private static void invokeHandler(EventHandlerInfo info, Event event, boolean debug) {
+        MCJSContextFactory.getInstance().callWithTimeLimit(info.context.pluginName, info.label,
+            cx -> info.handler.call(cx, info.context.scope, info.context.scope, new Object[]{event}));
+        if (debug) {
+            listenerPlugin.getLogger().info("[DEBUG] Event handler execution completed");
         }
     }
 
     public <T extends Event> void registerEvent(Class<T> eventClass, Object handler, EventPriority priority) {
-        debug("Registering event handler for " + eventClass.getName() + " with priority " + priority);
+        registerEvent(eventClass, handler, priority, false);
+    }
+    
+    public <T extends Event> void registerEvent(Class<T> eventClass, Object handler, EventPriority priority, boolean ignoreCancelled) {
+        if (priority == null) {
+            priority = EventPriority.NORMAL;
+        }
+        debug("Registering event handler for " + (eventClass != null ? eventClass.getName() : "null") + " with priority " + priority
+              + (ignoreCancelled ? " (ignoreCancelled)" : ""));
         // Check if Event is the base class (which doesn't have getHandlerList)
         if (eventClass == null || eventClass == Event.class) {
             plugin.getLogger().warning("Cannot register handler for base Event class. Use a specific event type.");
@@ -474,19 +588,73 @@ public class EventAPI extends BaseAPI {
             return;
         }
         
-        // Register this specific event class with PaperMC
-        registerEventClass(eventClass, plugin);
+        // Only JavaScript functions are dispatched - other handlers just make sure the class is registered
+        if (!(handler instanceof Function) || apiHelper.getScope() == null) {
+            registerEventClass(eventClass, priority, plugin, false);
+            return;
+        }
         
         // Create EventHandlerContext for this registration
-        EventHandlerContext context = new EventHandlerContext(apiHelper.getScope(), plugin);
+        EventHandlerContext context = new EventHandlerContext(apiHelper.getScope(), plugin, apiHelper.getPluginName());
         
-        // Store handler
-        synchronized (globalEventHandlers) {
-            globalEventHandlers.computeIfAbsent(eventClass, k -> new HashMap<>())
-                              .computeIfAbsent(context, k -> new ArrayList<>())
-                              .add(new EventHandlerInfo(handler, priority));
-            debug("Stored event handler for " + eventClass.getName() + " (total handlers: " + 
-                  globalEventHandlers.get(eventClass).get(context).size() + ")");
+        // Store handler and publish a new dispatch table
+        synchronized (registrationLock) {
+            // Register this specific event class and priority with PaperMC
+            ListenerRegistration registration = registerEventClass(eventClass, priority, plugin, true);
+            if (registration == null) {
+                return;
+            }
+            
+            // Anonymous handlers are told apart by their position among this plugin's handlers
+            String kind = "event " + eventClass.getSimpleName() + " (" + priority + ")";
+            String label = APIHelper.describe(kind, handler);
+            if (label.equals(kind)) {
+                label = kind + " #" + (ownedHandlers.size() + 1);
+            }
+            EventHandlerInfo info = new EventHandlerInfo(eventClass, context, (Function) handler, priority, ignoreCancelled,
+                handlerSequence++, registration, label);
+            Set<EventHandlerInfo> handlers = globalEventHandlers.computeIfAbsent(eventClass, k -> new LinkedHashSet<>());
+            handlers.add(info);
+            ownedHandlers.add(info);
+            rebuildDispatchTable();
+            debug("Stored event handler for " + eventClass.getName() + " (total handlers: " + handlers.size() + ")");
+        }
+    }
+    
+    /**
+     * Remove every event handler registered through this API instance (called when its JS plugin is unloaded).
+     * Bukkit listeners that have no handlers left are unregistered from their HandlerList.
+     */
+    public void unregisterAll() {
+        synchronized (registrationLock) {
+            if (ownedHandlers.isEmpty()) {
+                return;
+            }
+            
+            for (EventHandlerInfo info : ownedHandlers) {
+                Set<EventHandlerInfo> handlers = globalEventHandlers.get(info.eventClass);
+                if (handlers != null) {
+                    handlers.remove(info);
+                    if (handlers.isEmpty()) {
+                        globalEventHandlers.remove(info.eventClass);
+                    }
+                }
+                releaseEventClass(info.registration);
+            }
+            debug("Removed " + ownedHandlers.size() + " event handler(s)");
+            ownedHandlers.clear();
+            rebuildDispatchTable();
+        }
+    }
+    
+    // Publish a new immutable dispatch table from the current handler lists (caller holds registrationLock)
+    private static void rebuildDispatchTable() {
+        Map<Class<? extends Event>, EventHandlerInfo[]> snapshot = new HashMap<>();
+        for (Map.Entry<Class<? extends Event>, Set<EventHandlerInfo>> entry : globalEventHandlers.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                snapshot.put(entry.getKey(), entry.getValue().toArray(new EventHandlerInfo[0]));
+            }
         }
+        dispatchTable = new DispatchTable(snapshot);
     }
 }
@@ -10,10 +10,17 @@ import org.bukkit.plugin.java.JavaPlugin;
 public class EventHandlerContext {
     public final Scriptable scope;
     public final JavaPlugin plugin;
+    // Name of the JS plugin that registered the handler (may be null)
+    public final String pluginName;
     
     public EventHandlerContext(Scriptable scope, JavaPlugin plugin) {
+        this(scope, plugin, null);
+    }
+    
+    public EventHandlerContext(Scriptable scope, JavaPlugin plugin, String pluginName) {
         this.scope = scope;
         this.plugin = plugin;
+        this.pluginName = pluginName;
     }
     
     @Override
@@ -1,5 +1,6 @@
 package de.flori.mCJS.api;
 
+import de.flori.mCJS.MCJSSettings;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
@@ -19,13 +20,13 @@ public class FileAPI extends BaseAPI {
      * Check if file access is restricted and if the path is allowed
      */
     private boolean isFileAccessAllowed(String filePath) {
-        boolean restrictAccess = plugin.getConfig().getBoolean("security.restrict-file-access", false);
-        if (!restrictAccess) {
+        MCJSSettings settings = MCJSSettings.get();
+        if (!settings.isRestrictFileAccess()) {
             return true; // No restrictions
         }
         
-        java.util.List<String> allowedPaths = plugin.getConfig().getStringList("security.allowed-paths");
-        if (allowedPaths == null || allowedPaths.isEmpty()) {
+        java.util.List<String> allowedPaths = settings.getAllowedPaths();
+        if (allowedPaths.isEmpty()) {
             return false; // Restricted but no allowed paths = deny all
         }
         
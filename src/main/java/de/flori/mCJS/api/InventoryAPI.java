@@ -23,9 +23,10 @@ import java.util.concurrent.ConcurrentHashMap;
 public class InventoryAPI extends BaseAPI {
     private final APIHelper apiHelper;
     
-    // Inventory click/close handlers
-    private final Map<Inventory, Object> inventoryClickHandlers = Collections.synchronizedMap(new HashMap<>());
-    private final Map<Inventory, Object> inventoryCloseHandlers = Collections.synchronizedMap(new HashMap<>());
+    // Inventory click/close handlers of all JS plugins, with the helper of the plugin that registered them.
+    // Static because EventAPI routes inventory events to one InventoryAPI instance.
+    private static final Map<Inventory, Registration> inventoryClickHandlers = Collections.synchronizedMap(new HashMap<>());
+    private static final Map<Inventory, Registration> inventoryCloseHandlers = Collections.synchronizedMap(new HashMap<>());
     private static boolean inventoryClickEventRegistered = false;
     private static boolean inventoryCloseEventRegistered = false;
     
@@ -34,6 +35,19 @@ public class InventoryAPI extends BaseAPI {
         this.apiHelper = apiHelper;
     }
     
+    /**
+     * A click/close handler and the helper of the JS plugin that registered it
+     */
+    private static final class Registration {
+        final APIHelper owner;
+        final Object handler;
+        
+        Registration(APIHelper owner, Object handler) {
+            this.owner = owner;
+            this.handler = handler;
+        }
+    }
+    
     /**
      * Custom Inventory Holder class for advanced inventory management
      */
@@ -41,6 +55,8 @@ public class InventoryAPI extends BaseAPI {
         private Inventory inventory;
         private final Map<String, Object> data = new HashMap<>();
         private volatile boolean closed = false;
+        // Helper of the JS plugin that created the holder; its callbacks run with that plugin's scope
+        private volatile APIHelper owner;
         
         @Override
         public Inventory getInventory() {
@@ -51,6 +67,10 @@ public class InventoryAPI extends BaseAPI {
             this.inventory = inventory;
         }
         
+        public APIHelper getOwner() {
+            return owner;
+        }
+        
         /**
          * Store custom data in the holder (thread-safe)
          */
@@ -113,6 +133,8 @@ public class InventoryAPI extends BaseAPI {
         // Use ConcurrentHashMap for thread-safety
         private Map<Integer, ItemStack> items = new ConcurrentHashMap<>();
         private Map<Integer, Object> clickHandlers = new ConcurrentHashMap<>();
+        // Profiler/error labels of the slot handlers, built once here instead of on every click
+        private Map<Integer, String> clickLabels = new ConcurrentHashMap<>();
         private volatile Object globalClickHandler = null;
         private Object closeHandler = null;
         private ItemStack backgroundItem = null;
@@ -142,6 +164,7 @@ public class InventoryAPI extends BaseAPI {
             setItem(slot, item);
             if (clickHandler != null) {
                 clickHandlers.put(slot, clickHandler);
+                clickLabels.put(slot, APIHelper.describe("GUI click slot " + slot, clickHandler));
             }
             return this;
         }
@@ -229,7 +252,7 @@ public class InventoryAPI extends BaseAPI {
          * Build and return the inventory
          */
         public Inventory build() {
-            CustomInventoryHolder holder = new CustomInventoryHolder();
+            CustomInventoryHolder holder = newHolder();
             Component component = legacyToComponentWithAmpersand(title);
             inventory = Bukkit.createInventory(holder, size, component);
             holder.setInventory(inventory);
@@ -255,8 +278,11 @@ public class InventoryAPI extends BaseAPI {
             
             // Store handlers and data in holder for later use
             holder.setData("clickHandlers", new HashMap<>(clickHandlers)); // Copy for thread safety
+            holder.setData("clickLabels", new HashMap<>(clickLabels));
             holder.setData("globalClickHandler", globalClickHandler);
+            holder.setData("globalClickLabel", APIHelper.describe("GUI click", globalClickHandler));
             holder.setData("closeHandler", closeHandler);
+            holder.setData("closeLabel", APIHelper.describe("GUI close", closeHandler));
             holder.setData("allowItemRemoval", allowItemRemoval);
             holder.setData("items", itemsCopy); // Store items for refresh
             holder.setData("backgroundItem", backgroundItem != null ? backgroundItem.clone() : null);
@@ -314,7 +340,7 @@ public class InventoryAPI extends BaseAPI {
             plugin.getLogger().warning("Invalid inventory size: " + size + ". Must be a multiple of 9 between 9 and 54.");
             size = Math.max(9, Math.min(54, (size / 9) * 9));
         }
-        CustomInventoryHolder holder = new CustomInventoryHolder();
+        CustomInventoryHolder holder = newHolder();
         Component component = legacyToComponentWithAmpersand(title);
         Inventory inv = Bukkit.createInventory(holder, size, component);
         holder.setInventory(inv);
@@ -342,7 +368,13 @@ public class InventoryAPI extends BaseAPI {
      * Create a custom inventory holder for advanced usage
      */
     public CustomInventoryHolder createInventoryHolder() {
-        return new CustomInventoryHolder();
+        return newHolder();
+    }
+    
+    private CustomInventoryHolder newHolder() {
+        CustomInventoryHolder holder = new CustomInventoryHolder();
+        holder.owner = apiHelper;
+        return holder;
     }
     
     /**
@@ -377,7 +409,7 @@ public class InventoryAPI extends BaseAPI {
     }
     
     public void registerInventoryClick(Inventory inventory, Object handler) {
-        inventoryClickHandlers.put(inventory, handler);
+        inventoryClickHandlers.put(inventory, new Registration(apiHelper, handler));
         
         // Register the event globally if not already registered
         // Note: EventAPI.executeEventWrapper will automatically call handleInventoryClick
@@ -393,7 +425,7 @@ public class InventoryAPI extends BaseAPI {
     }
 
     public void registerInventoryClose(Inventory inventory, Object handler) {
-        inventoryCloseHandlers.put(inventory, handler);
+        inventoryCloseHandlers.put(inventory, new Registration(apiHelper, handler));
         
         // Register the event globally if not already registered
         // Note: EventAPI.executeEventWrapper will automatically call handleInventoryClose
@@ -432,11 +464,12 @@ public class InventoryAPI extends BaseAPI {
             return;
         }
         
-        Object handler = inventoryClickHandlers.get(topInv);
+        Registration registration = inventoryClickHandlers.get(topInv);
         
         // Check if it's a custom inventory with slot-specific handlers
         if (topInv.getHolder() instanceof CustomInventoryHolder) {
             CustomInventoryHolder holder = (CustomInventoryHolder) topInv.getHolder();
+            APIHelper owner = holder.getOwner() != null ? holder.getOwner() : apiHelper;
             
             // Skip if inventory is closed
             if (holder.isClosed()) {
@@ -475,16 +508,11 @@ public class InventoryAPI extends BaseAPI {
                 }
                 
                 // Execute slot-specific handler first
-                if (slotHandler instanceof Function && apiHelper.getScope() != null && slot >= 0) {
+                if (slotHandler instanceof Function && owner.getScope() != null && slot >= 0) {
                     try {
-                        org.mozilla.javascript.Context cx = org.mozilla.javascript.Context.enter();
-                        try {
-                            cx.setOptimizationLevel(-1);
-                            cx.setLanguageVersion(org.mozilla.javascript.Context.VERSION_ES6);
-                            ((Function) slotHandler).call(cx, apiHelper.getScope(), apiHelper.getScope(), new Object[]{event});
-                        } finally {
-                            org.mozilla.javascript.Context.exit();
-                        }
+                        @SuppressWarnings("unchecked")
+                        Map<Integer, String> labels = (Map<Integer, String>) holder.getData("clickLabels");
+                        owner.executeFunction(labels.get(slot), (Function) slotHandler, event);
                     } catch (Exception e) {
                         plugin.getLogger().severe("Error in inventory click handler: " + e.getMessage());
                         if (isDebugMode()) {
@@ -495,16 +523,9 @@ public class InventoryAPI extends BaseAPI {
                 }
                 
                 // Execute global handler if no slot-specific handler or for shift-clicks
-                if (globalHandler instanceof Function && apiHelper.getScope() != null) {
+                if (globalHandler instanceof Function && owner.getScope() != null) {
                     try {
-                        org.mozilla.javascript.Context cx = org.mozilla.javascript.Context.enter();
-                        try {
-                            cx.setOptimizationLevel(-1);
-                            cx.setLanguageVersion(org.mozilla.javascript.Context.VERSION_ES6);
-                            ((Function) globalHandler).call(cx, apiHelper.getScope(), apiHelper.getScope(), new Object[]{event});
-                        } finally {
-                            org.mozilla.javascript.Context.exit();
-                        }
+                        owner.executeFunction((String) holder.getData("globalClickLabel"), (Function) globalHandler, event);
                     } catch (Exception e) {
                         plugin.getLogger().severe("Error in inventory click handler: " + e.getMessage());
                         if (isDebugMode()) {
@@ -517,16 +538,9 @@ public class InventoryAPI extends BaseAPI {
         }
         
         // Fallback to regular handler
-        if (handler instanceof Function && apiHelper.getScope() != null) {
+        if (registration != null && registration.handler instanceof Function && registration.owner.getScope() != null) {
             try {
-                org.mozilla.javascript.Context cx = org.mozilla.javascript.Context.enter();
-                try {
-                    cx.setOptimizationLevel(-1);
-                    cx.setLanguageVersion(org.mozilla.javascript.Context.VERSION_ES6);
-                    ((Function) handler).call(cx, apiHelper.getScope(), apiHelper.getScope(), new Object[]{event});
-                } finally {
-                    org.mozilla.javascript.Context.exit();
-                }
+                registration.owner.executeFunction("inventory click", (Function) registration.handler, event);
             } catch (Exception e) {
                 plugin.getLogger().severe("Error in inventory click handler: " + e.getMessage());
                 if (isDebugMode()) {
@@ -542,26 +556,20 @@ public class InventoryAPI extends BaseAPI {
      */
     public void handleInventoryClose(InventoryCloseEvent event) {
         Inventory inv = event.getInventory();
-        Object handler = inventoryCloseHandlers.get(inv);
+        Registration registration = inventoryCloseHandlers.get(inv);
         
         // Check if it's a custom inventory with close handler in holder
         if (inv.getHolder() instanceof CustomInventoryHolder) {
             CustomInventoryHolder holder = (CustomInventoryHolder) inv.getHolder();
+            APIHelper owner = holder.getOwner() != null ? holder.getOwner() : apiHelper;
             
             // Mark inventory as closed
             holder.markClosed();
             
             Object closeHandler = holder.getData("closeHandler");
-            if (closeHandler instanceof Function && apiHelper.getScope() != null) {
+            if (closeHandler instanceof Function && owner.getScope() != null) {
                 try {
-                    org.mozilla.javascript.Context cx = org.mozilla.javascript.Context.enter();
-                    try {
-                        cx.setOptimizationLevel(-1);
-                        cx.setLanguageVersion(org.mozilla.javascript.Context.VERSION_ES6);
-                        ((Function) closeHandler).call(cx, apiHelper.getScope(), apiHelper.getScope(), new Object[]{event});
-                    } finally {
-                        org.mozilla.javascript.Context.exit();
-                    }
+                    owner.executeFunction((String) holder.getData("closeLabel"), (Function) closeHandler, event);
                 } catch (Exception e) {
                     plugin.getLogger().severe("Error in inventory close handler: " + e.getMessage());
                     if (isDebugMode()) {
@@ -585,16 +593,9 @@ public class InventoryAPI extends BaseAPI {
         }
         
         // Fallback to regular handler
-        if (handler instanceof Function && apiHelper.getScope() != null) {
+        if (registration != null && registration.handler instanceof Function && registration.owner.getScope() != null) {
             try {
-                org.mozilla.javascript.Context cx = org.mozilla.javascript.Context.enter();
-                try {
-                    cx.setOptimizationLevel(-1);
-                    cx.setLanguageVersion(org.mozilla.javascript.Context.VERSION_ES6);
-                    ((Function) handler).call(cx, apiHelper.getScope(), apiHelper.getScope(), new Object[]{event});
-                } finally {
-                    org.mozilla.javascript.Context.exit();
-                }
+                registration.owner.executeFunction("inventory close", (Function) registration.handler, event);
             } catch (Exception e) {
                 plugin.getLogger().severe("Error in inventory close handler: " + e.getMessage());
                 if (isDebugMode()) {
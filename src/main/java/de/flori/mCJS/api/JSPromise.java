@@ -0,0 +1,159 @@
+package de.flori.mCJS.api;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.mozilla.javascript.Function;
+import org.mozilla.javascript.RhinoException;
+import org.mozilla.javascript.Undefined;
+import org.mozilla.javascript.Wrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Thenable returned to JavaScript by the *Async API methods, backed by a CompletableFuture.
+ * The work runs on the plugin's lane of the AsyncExecutor (database writes on the DatabaseWriter); continuations registered with then/onError/always
+ * always run on the main thread on the tick after the result is available, so they may use the Bukkit API.
+ * Rejections are passed to handlers as the error message.
+ */
+public final class JSPromise {
+    private final JavaPlugin plugin;
+    private final APIHelper apiHelper;
+    private final CompletableFuture<Object> future;
+
+    JSPromise(JavaPlugin plugin, APIHelper apiHelper, CompletableFuture<Object> future) {
+        this.plugin = plugin;
+        this.apiHelper = apiHelper;
+        this.future = future;
+    }
+
+    /**
+     * Run blocking work asynchronously in the lane of the helper's JS plugin
+     */
+    public static JSPromise supplyAsync(JavaPlugin plugin, APIHelper apiHelper, String description, Callable<?> work) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        AsyncExecutor.get(plugin).submit(apiHelper.getPluginName(), () -> {
+            try {
+                future.complete(work.call());
+            } catch (Throwable t) {
+                plugin.getLogger().severe("Error in " + description + " of JS plugin '" + apiHelper.getPluginName() + "': " + errorMessage(t));
+                future.completeExceptionally(t);
+            }
+        });
+        return new JSPromise(plugin, apiHelper, future);
+    }
+
+    /**
+     * Wrap a future completed elsewhere (e.g. by a DatabaseWriter); failures are logged like supplyAsync does
+     */
+    @SuppressWarnings("unchecked")
+    public static JSPromise fromFuture(JavaPlugin plugin, APIHelper apiHelper, String description, CompletableFuture<?> source) {
+        CompletableFuture<Object> future = (CompletableFuture<Object>) source;
+        future.whenComplete((value, error) -> {
+            if (error != null) {
+                plugin.getLogger().severe("Error in " + description + " of JS plugin '" + apiHelper.getPluginName() + "': " + errorMessage(error));
+            }
+        });
+        return new JSPromise(plugin, apiHelper, future);
+    }
+
+    /**
+     * Call onFulfilled(value) or onRejected(error) on the main thread once settled.
+     * Returns a new promise for the handler's result; returning a promise from a handler chains it.
+     */
+    public JSPromise then(Object onFulfilled, Object onRejected) {
+        CompletableFuture<Object> next = new CompletableFuture<>();
+        future.whenComplete((value, error) -> TimingWheel.get(plugin).schedule(
+            () -> settle(next, value, error, onFulfilled, onRejected), 1, 0));
+        return new JSPromise(plugin, apiHelper, next);
+    }
+
+    public JSPromise then(Object onFulfilled) {
+        return then(onFulfilled, null);
+    }
+
+    /**
+     * Handle a rejection (like catch of a JS promise)
+     */
+    public JSPromise onError(Object onRejected) {
+        return then(null, onRejected);
+    }
+
+    /**
+     * Call handler without arguments when settled, either way (like finally of a JS promise)
+     */
+    public JSPromise always(Object handler) {
+        CompletableFuture<Object> next = new CompletableFuture<>();
+        future.whenComplete((value, error) -> TimingWheel.get(plugin).schedule(() -> {
+            try {
+                if (handler instanceof Function) {
+                    apiHelper.callFunction(APIHelper.describe("promise callback", handler), (Function) handler);
+                }
+                complete(next, value, error);
+            } catch (Throwable t) {
+                next.completeExceptionally(t);
+            }
+        }, 1, 0));
+        return new JSPromise(plugin, apiHelper, next);
+    }
+
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    public boolean isRejected() {
+        return future.isCompletedExceptionally();
+    }
+
+    /**
+     * The underlying future (for Java callers)
+     */
+    public CompletableFuture<Object> toFuture() {
+        return future;
+    }
+
+    // Runs on the main thread
+    private void settle(CompletableFuture<Object> next, Object value, Throwable error, Object onFulfilled, Object onRejected) {
+        Object handler = error == null ? onFulfilled : onRejected;
+        if (!(handler instanceof Function)) {
+            // No handler for this outcome, pass it on
+            complete(next, value, error);
+            return;
+        }
+
+        try {
+            Object result = apiHelper.callFunction(APIHelper.describe("promise callback", handler), (Function) handler,
+                error == null ? value : errorMessage(error));
+            if (result instanceof Wrapper) {
+                result = ((Wrapper) result).unwrap();
+            }
+            if (result instanceof JSPromise) {
+                ((JSPromise) result).future.whenComplete((v, e) -> complete(next, v, e));
+            } else {
+                next.complete(result instanceof Undefined ? null : result);
+            }
+        } catch (Throwable t) {
+            plugin.getLogger().severe("Error in promise callback of JS plugin '" + apiHelper.getPluginName() + "': " + errorMessage(t));
+            next.completeExceptionally(t);
+        }
+    }
+
+    private static void complete(CompletableFuture<Object> future, Object value, Throwable error) {
+        if (error != null) {
+            future.completeExceptionally(error);
+        } else {
+            future.complete(value);
+        }
+    }
+
+    private static String errorMessage(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error instanceof RhinoException) {
+            return ((RhinoException) error).details();
+        }
+        return error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+    }
+}
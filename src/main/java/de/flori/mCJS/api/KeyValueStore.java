@@ -0,0 +1,356 @@
+package de.flori.mCJS.api;
+
+import de.flori.mCJS.MCJSSettings;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Key-value store backed by a two-column SQLite table, with a write-behind cache in front of it.
+ * Reads are served from an LRU cache and only go to SQLite on a miss; writes only change memory and mark the key dirty.
+ * Dirty keys are written in one batch on the database's writer thread every performance.kv-flush-interval ticks
+ * and when MC-JS is disabled. Values are strings, numbers, booleans (stored as 1/0) or null.
+ * Stores are shared: every JS plugin that opens the same store of the same database gets the same instance.
+ */
+public final class KeyValueStore {
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_]+");
+    // Cached result of a lookup that found nothing, so missing keys do not hit SQLite again
+    private static final Object MISSING = new Object();
+    // Pending delete in the dirty map
+    private static final Object DELETED = new Object();
+
+    private static final Map<String, KeyValueStore> stores = new ConcurrentHashMap<>();
+    private static TimingWheel.WheelTask flusher;
+
+    private final String name;
+    private final File file;
+    private final String table;
+    private final Logger logger;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Object> cache;
+    // Changed since the last flush (value or DELETED); newest value of a key that was evicted from the cache
+    private Map<String, Object> dirty = new HashMap<>();
+    // Handed to the writer and not committed yet
+    private Map<String, Object> flushing;
+    // Completes once the flush in flight has been committed or failed and its keys are settled
+    private CompletableFuture<Void> inFlight;
+
+    private long hits;
+    private long misses;
+    private long flushes;
+    private long flushedKeys;
+
+    private KeyValueStore(String name, File file, int capacity, Logger logger) {
+        this.name = name;
+        this.file = file;
+        this.table = "kv_" + name;
+        this.logger = logger;
+        // Access-ordered, so the least recently used key is evicted first
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Open a store in a database file, creating its table on first use
+     */
+    public static KeyValueStore open(JavaPlugin plugin, File file, String name) throws SQLException {
+        if (name == null || !NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid store name '" + name + "' (letters, digits and _ only)");
+        }
+        String id = file.getAbsolutePath() + "#" + name;
+        KeyValueStore store = stores.get(id);
+        if (store != null) {
+            return store;
+        }
+
+        KeyValueStore created = new KeyValueStore(name, file, MCJSSettings.get().getKvCacheSize(), plugin.getLogger());
+        DatabasePool.with(file, db -> {
+            try (java.sql.Statement stmt = db.getConnection().createStatement()) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS " + created.table + " (key TEXT PRIMARY KEY, value)");
+            }
+            return null;
+        });
+        store = stores.putIfAbsent(id, created);
+        startFlusher(plugin);
+        return store != null ? store : created;
+    }
+
+    // One wheel timer flushes every store
+    private static synchronized void startFlusher(JavaPlugin plugin) {
+        if (flusher != null && !flusher.isCancelled()) {
+            return;
+        }
+        long interval = MCJSSettings.get().getKvFlushInterval();
+        flusher = TimingWheel.get(plugin).schedule(KeyValueStore::flushAll, interval, interval);
+    }
+
+    /**
+     * Start a flush of every store that has dirty keys
+     */
+    public static void flushAll() {
+        for (KeyValueStore store : stores.values()) {
+            store.flush();
+        }
+    }
+
+    /**
+     * Write all dirty keys of every store and forget the stores (called when MC-JS is disabled, before the writers stop)
+     */
+    public static synchronized void closeAll() {
+        for (KeyValueStore store : stores.values()) {
+            CompletableFuture<Void> pending = store.inFlight;
+            if (pending != null) {
+                pending.join();
+            }
+            store.flush();
+        }
+        stores.clear();
+        if (flusher != null) {
+            flusher.cancel();
+            flusher = null;
+        }
+    }
+
+    /**
+     * Every open store
+     */
+    public static List<KeyValueStore> getStores() {
+        return new ArrayList<>(stores.values());
+    }
+
+    /**
+     * Value of key, or null if it has none
+     */
+    public Object get(String key) {
+        return get(key, null);
+    }
+
+    public Object get(String key, Object defaultValue) {
+        lock.lock();
+        try {
+            Object value = lookup(key);
+            return value == MISSING ? defaultValue : value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean has(String key) {
+        lock.lock();
+        try {
+            return lookup(key) != MISSING;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Set key to value in memory; it is written with the next flush. Setting null removes the key.
+     */
+    public void set(String key, Object value) {
+        Object sqlValue = DatabaseAPI.toSqlValue(value);
+        if (sqlValue instanceof Boolean) {
+            // Same value after a reload from SQLite
+            sqlValue = (Boolean) sqlValue ? 1L : 0L;
+        }
+        if (sqlValue != null && !(sqlValue instanceof String || sqlValue instanceof Number)) {
+            throw new IllegalArgumentException("Store values must be strings, numbers or booleans (use JSON.stringify for objects)");
+        }
+        lock.lock();
+        try {
+            cache.put(key, sqlValue == null ? MISSING : sqlValue);
+            dirty.put(key, sqlValue == null ? DELETED : sqlValue);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(String key) {
+        set(key, null);
+    }
+
+    /**
+     * Add delta to the number stored at key (missing counts as 0) and return the new value
+     */
+    public Number increment(String key, double delta) {
+        lock.lock();
+        try {
+            Object current = lookup(key);
+            Number result;
+            if (current == MISSING || current == null) {
+                result = delta == Math.rint(delta) ? (Number) (long) delta : (Number) delta;
+            } else if (current instanceof Number) {
+                Number number = (Number) current;
+                boolean integral = !(number instanceof Double || number instanceof Float) && delta == Math.rint(delta);
+                result = integral ? (Number) (number.longValue() + (long) delta) : (Number) (number.doubleValue() + delta);
+            } else {
+                throw new IllegalArgumentException("Value of '" + key + "' in store '" + name + "' is not a number");
+            }
+            cache.put(key, result);
+            dirty.put(key, result);
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Number increment(String key) {
+        return increment(key, 1);
+    }
+
+    /**
+     * Hand the dirty keys to the database's writer thread now; returns the number of keys queued.
+     * Does nothing while the previous flush of this store is still being written.
+     */
+    public int flush() {
+        lock.lock();
+        try {
+            if (dirty.isEmpty() || flushing != null) {
+                return 0;
+            }
+            Map<String, Object> batch = dirty;
+            dirty = new HashMap<>();
+            flushing = batch;
+            inFlight = DatabaseWriter.submit(file, db -> write(db, batch)).handle((written, error) -> {
+                settle(batch, written, error);
+                return null;
+            });
+            return batch.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void settle(Map<String, Object> batch, Integer written, Throwable error) {
+        lock.lock();
+        try {
+            if (error != null) {
+                // Keep the keys dirty unless they were changed again in the meantime
+                batch.forEach(dirty::putIfAbsent);
+                logger.severe("Error writing store '" + name + "' of " + file.getName() + ": " + error.getMessage());
+            } else {
+                flushes++;
+                flushedKeys += written;
+            }
+            flushing = null;
+            inFlight = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String getName() { return name; }
+    public File getFile() { return file; }
+
+    public int getCachedCount() {
+        lock.lock();
+        try {
+            return cache.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getDirtyCount() {
+        lock.lock();
+        try {
+            return dirty.size() + (flushing != null ? flushing.size() : 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getFlushes() { return flushes; }
+    public long getFlushedKeys() { return flushedKeys; }
+
+    // Holding the lock; returns MISSING if the key has no value
+    private Object lookup(String key) {
+        Object value = cache.get(key);
+        if (value != null) {
+            hits++;
+            return value;
+        }
+        // Evicted from the cache before it was written
+        value = dirty.get(key);
+        if (value == null && flushing != null) {
+            value = flushing.get(key);
+        }
+        if (value != null) {
+            hits++;
+            value = value == DELETED ? MISSING : value;
+            cache.put(key, value);
+            return value;
+        }
+
+        misses++;
+        try {
+            value = DatabasePool.read(file, db -> {
+                PreparedStatement stmt = db.prepare("SELECT value FROM " + table + " WHERE key = ?");
+                stmt.setString(1, key);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return MISSING;
+                    }
+                    Object stored = rs.getObject(1);
+                    return stored != null ? stored : MISSING;
+                }
+            });
+        } catch (SQLException e) {
+            throw new IllegalStateException("Error reading store '" + name + "' of " + file.getName() + ": " + e.getMessage(), e);
+        }
+        cache.put(key, value);
+        return value;
+    }
+
+    // On the writer thread, inside its transaction
+    private int write(DatabasePool.Database db, Map<String, Object> batch) throws SQLException {
+        PreparedStatement upsert = db.prepare("INSERT OR REPLACE INTO " + table + " (key, value) VALUES (?, ?)");
+        PreparedStatement delete = db.prepare("DELETE FROM " + table + " WHERE key = ?");
+        boolean upserts = false;
+        boolean deletes = false;
+        for (Map.Entry<String, Object> entry : batch.entrySet()) {
+            if (entry.getValue() == DELETED) {
+                delete.setString(1, entry.getKey());
+                delete.addBatch();
+                deletes = true;
+            } else {
+                upsert.setString(1, entry.getKey());
+                upsert.setObject(2, entry.getValue());
+                upsert.addBatch();
+                upserts = true;
+            }
+        }
+        try {
+            if (upserts) {
+                upsert.executeBatch();
+            }
+            if (deletes) {
+                delete.executeBatch();
+            }
+        } catch (SQLException e) {
+            upsert.clearBatch();
+            delete.clearBatch();
+            throw e;
+        }
+        return batch.size();
+    }
+}
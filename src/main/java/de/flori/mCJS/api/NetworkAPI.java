@@ -16,21 +16,7 @@ public class NetworkAPI extends BaseAPI {
     // ===== HTTP REQUESTS =====
     public String httpGet(String url) {
         try {
-            URI uri = new URI(url);
-            java.net.HttpURLConnection conn = (java.net.HttpURLConnection) uri.toURL().openConnection();
-            conn.setRequestMethod("GET");
-            conn.setConnectTimeout(5000);
-            conn.setReadTimeout(5000);
-
-            try (java.io.BufferedReader reader = new java.io.BufferedReader(
-                    new java.io.InputStreamReader(conn.getInputStream()))) {
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line).append("\n");
-                }
-                return response.toString().trim();
-            }
+            return request("GET", url, null);
         } catch (Exception e) {
             plugin.getLogger().severe("Error making HTTP GET request to '" + url + "': " + e.getMessage());
             e.printStackTrace();
@@ -40,32 +26,41 @@ public class NetworkAPI extends BaseAPI {
 
     public String httpPost(String url, String data) {
         try {
-            URI uri = new URI(url);
-            java.net.HttpURLConnection conn = (java.net.HttpURLConnection) uri.toURL().openConnection();
-            conn.setRequestMethod("POST");
+            return request("POST", url, data);
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error making HTTP POST request to '" + url + "': " + e.getMessage());
+            e.printStackTrace();
+            return "";
+        }
+    }
+
+    /**
+     * Perform a request and return the response body; errors are thrown (used by the async variants)
+     */
+    public String request(String method, String url, String data) throws Exception {
+        URI uri = new URI(url);
+        java.net.HttpURLConnection conn = (java.net.HttpURLConnection) uri.toURL().openConnection();
+        conn.setRequestMethod(method);
+        conn.setConnectTimeout(5000);
+        conn.setReadTimeout(5000);
+
+        if (data != null) {
             conn.setDoOutput(true);
             conn.setRequestProperty("Content-Type", "application/json");
-            conn.setConnectTimeout(5000);
-            conn.setReadTimeout(5000);
-
             try (java.io.OutputStream os = conn.getOutputStream()) {
                 byte[] input = data.getBytes("utf-8");
                 os.write(input, 0, input.length);
             }
+        }
 
-            try (java.io.BufferedReader reader = new java.io.BufferedReader(
-                    new java.io.InputStreamReader(conn.getInputStream()))) {
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line).append("\n");
-                }
-                return response.toString().trim();
+        try (java.io.BufferedReader reader = new java.io.BufferedReader(
+                new java.io.InputStreamReader(conn.getInputStream()))) {
+            StringBuilder response = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                response.append(line).append("\n");
             }
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error making HTTP POST request to '" + url + "': " + e.getMessage());
-            e.printStackTrace();
-            return "";
+            return response.toString().trim();
         }
     }
 }
@@ -28,7 +28,7 @@ public class PluginBrowserAPI extends BaseAPI {
         super(plugin);
         this.networkAPI = networkAPI;
         // Default browser URL, can be configured
-        this.browserUrl = plugin.getConfig().getString("plugin-browser.url", "https://browser.flori.tv");
+        this.browserUrl = de.flori.mCJS.MCJSSettings.get().getPluginBrowserUrl();
     }
     
     /**
@@ -317,9 +317,7 @@ public class PluginBrowserAPI extends BaseAPI {
             }
             
             // Create a minimal Rhino context - don't initialize standard objects that might cause issues
-            org.mozilla.javascript.Context rhinoContext = org.mozilla.javascript.Context.enter();
-            rhinoContext.setOptimizationLevel(-1);
-            rhinoContext.setLanguageVersion(org.mozilla.javascript.Context.VERSION_ES6);
+            org.mozilla.javascript.Context rhinoContext = de.flori.mCJS.MCJSContextFactory.getInstance().enterContext();
             
             try {
                 // Create a minimal scope - only basic objects, no Bukkit/API dependencies
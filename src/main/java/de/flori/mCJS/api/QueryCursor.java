@@ -0,0 +1,104 @@
+package de.flori.mCJS.api;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazy iterator over a query result. Rows are read from SQLite one at a time, so memory use does not grow
+ * with the size of the result. The cursor reads on its own connection (WAL lets it run next to the shared one)
+ * and is closed automatically after the last row; close it yourself if you stop early.
+ * next() returns the same ResultRow object every time, refilled with the next row.
+ */
+public final class QueryCursor implements Iterator<ResultRow>, AutoCloseable {
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
+    private final ResultRow row;
+    private final Runnable onClose;
+    private boolean fetched;
+    private boolean hasRow;
+    private boolean closed;
+    private long position;
+
+    QueryCursor(Connection connection, String sql, Object[] params, Runnable onClose) throws SQLException {
+        this.connection = connection;
+        this.onClose = onClose;
+        try {
+            this.statement = DatabaseAPI.bind(connection.prepareStatement(sql), params, 0);
+            this.resultSet = statement.executeQuery();
+            this.row = ResultRow.forResultSet(resultSet);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        if (!fetched) {
+            try {
+                hasRow = resultSet.next();
+                if (hasRow) {
+                    row.load(resultSet);
+                }
+            } catch (SQLException e) {
+                close();
+                throw new IllegalStateException("Error reading query result: " + e.getMessage(), e);
+            }
+            fetched = true;
+            if (!hasRow) {
+                close();
+            }
+        }
+        return hasRow;
+    }
+
+    @Override
+    public synchronized ResultRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        fetched = false;
+        position++;
+        return row;
+    }
+
+    /**
+     * Number of rows returned so far
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    public String[] getColumns() {
+        return row.getColumns();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        hasRow = false;
+        try {
+            resultSet.close();
+            statement.close();
+            connection.close();
+        } catch (SQLException e) {
+            // Closing anyway
+        }
+        onClose.run();
+    }
+}
@@ -0,0 +1,153 @@
+package de.flori.mCJS.api;
+
+import de.flori.mCJS.ExecutionProfiler;
+import de.flori.mCJS.MCJSSettings;
+
+import java.io.File;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Times the statements DatabaseAPI runs, per database file and JS plugin (shown by /jsdb stats).
+ * Statements slower than performance.slow-query-ms are logged together with their EXPLAIN QUERY PLAN,
+ * at most once a minute per SQL text so a slow query in a timer does not flood the log.
+ */
+public final class QueryLog {
+    private static final long EXPLAIN_INTERVAL_NANOS = 60_000_000_000L;
+    // Longest SQL text kept as a key of lastLogged; longer statements are rarely repeated verbatim
+    private static final int MAX_LOGGED_SQL = 2000;
+
+    private static final Map<String, DatabaseStats> databases = new ConcurrentHashMap<>();
+    // SQL text -> System.nanoTime() of its last slow-query log line
+    private static final Map<String, Long> lastLogged = new ConcurrentHashMap<>();
+
+    /**
+     * A statement to time
+     */
+    @FunctionalInterface
+    public interface Timed<T> {
+        T run() throws SQLException;
+    }
+
+    /**
+     * Statement timings of one database file
+     */
+    public static final class DatabaseStats {
+        private final File file;
+        private final ExecutionProfiler.HandlerStats total = new ExecutionProfiler.HandlerStats();
+        private final Map<String, ExecutionProfiler.HandlerStats> plugins = new ConcurrentHashMap<>();
+        private final LongAdder slow = new LongAdder();
+
+        private DatabaseStats(File file) {
+            this.file = file;
+        }
+
+        public File getFile() { return file; }
+        public ExecutionProfiler.HandlerStats getTotal() { return total; }
+        public long getSlowCount() { return slow.sum(); }
+
+        /**
+         * Timings per JS plugin, most total time first
+         */
+        public List<Map.Entry<String, ExecutionProfiler.HandlerStats>> getPlugins() {
+            List<Map.Entry<String, ExecutionProfiler.HandlerStats>> list = new ArrayList<>(plugins.entrySet());
+            list.sort(Comparator.comparingLong((Map.Entry<String, ExecutionProfiler.HandlerStats> e) -> e.getValue().getTotalNanos()).reversed());
+            return list;
+        }
+    }
+
+    private QueryLog() {
+    }
+
+    /**
+     * Run a statement on db (inside DatabasePool.with or DatabasePool.read) and record how long it took
+     */
+    public static <T> T time(Logger logger, DatabasePool.Database db, String pluginName, String sql, Timed<T> work) throws SQLException {
+        long start = System.nanoTime();
+        T result = work.run();
+        long nanos = System.nanoTime() - start;
+
+        DatabaseStats stats = databases.computeIfAbsent(db.getFile().getAbsolutePath(), k -> new DatabaseStats(db.getFile()));
+        stats.total.record(nanos);
+        stats.plugins.computeIfAbsent(pluginName != null ? pluginName : "MC-JS", k -> new ExecutionProfiler.HandlerStats()).record(nanos);
+
+        long threshold = MCJSSettings.get().getSlowQueryMs();
+        if (threshold > 0 && nanos >= threshold * 1_000_000) {
+            stats.slow.increment();
+            logSlow(logger, db, pluginName, sql, nanos);
+        }
+        return result;
+    }
+
+    /**
+     * The EXPLAIN QUERY PLAN lines of sql (parameters are left unbound, which does not change the plan)
+     */
+    public static List<String> explain(DatabasePool.Database db, String sql) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        // Not from the statement cache, so diagnostics do not push out the statements in use
+        try (PreparedStatement stmt = db.getConnection().prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                plan.add(rs.getString("detail"));
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Timings of every database that ran statements, most total time first
+     */
+    public static List<DatabaseStats> getDatabases() {
+        List<DatabaseStats> list = new ArrayList<>(databases.values());
+        list.sort(Comparator.comparingLong((DatabaseStats s) -> s.total.getTotalNanos()).reversed());
+        return list;
+    }
+
+    public static void reset() {
+        databases.clear();
+        lastLogged.clear();
+    }
+
+    private static void logSlow(Logger logger, DatabasePool.Database db, String pluginName, String sql, long nanos) {
+        long now = System.nanoTime();
+        String key = sql.length() > MAX_LOGGED_SQL ? sql.substring(0, MAX_LOGGED_SQL) : sql;
+        Long last = lastLogged.get(key);
+        if (last != null && now - last < EXPLAIN_INTERVAL_NANOS) {
+            return;
+        }
+        if (lastLogged.size() > 1000) {
+            // Many distinct slow statements (values pasted into the SQL); start over instead of growing
+            lastLogged.clear();
+        }
+        lastLogged.put(key, now);
+
+        StringBuilder message = new StringBuilder(String.format(java.util.Locale.ROOT, "Slow query in %s (%.2fms", db.getFile().getName(), nanos / 1_000_000.0));
+        if (pluginName != null) {
+            message.append(", JS plugin '").append(pluginName).append("'");
+        }
+        message.append("): ").append(sql);
+        try {
+            boolean scan = false;
+            for (String step : explain(db, sql)) {
+                message.append("\n  plan: ").append(step);
+                // "SCAN t" reads the whole table; "SCAN t USING (COVERING) INDEX" walks an index
+                scan |= step.startsWith("SCAN ") && !step.contains(" INDEX ") && !step.startsWith("SCAN CONSTANT");
+            }
+            if (scan) {
+                message.append("\n  The query scans a whole table, an index on the columns in its WHERE clause (api.createIndex) may help");
+            }
+        } catch (SQLException e) {
+            // E.g. several statements in one string
+            message.append("\n  plan: unavailable (").append(e.getMessage()).append(")");
+        }
+        logger.warning(message.toString());
+    }
+}
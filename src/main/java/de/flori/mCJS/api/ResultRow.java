@@ -0,0 +1,111 @@
+package de.flori.mCJS.api;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compact row of a query result: the values in an array, addressed by column index (0-based) or name.
+ * The column names are shared by all rows of a result instead of being repeated in a map per row.
+ * Rows passed to queryEach callbacks and returned by cursors are reused for the next row; use toMap()
+ * or toArray() to keep the values.
+ */
+public final class ResultRow {
+    private final String[] columns;
+    // Case-insensitive like SQLite column names
+    private final Map<String, Integer> indexes;
+    private Object[] values;
+
+    ResultRow(String[] columns, Map<String, Integer> indexes, Object[] values) {
+        this.columns = columns;
+        this.indexes = indexes;
+        this.values = values;
+    }
+
+    /**
+     * Empty row shaped like the columns of a result set (fill with load)
+     */
+    static ResultRow forResultSet(ResultSet rs) throws SQLException {
+        String[] columns = columnsOf(rs);
+        return new ResultRow(columns, indexesOf(columns), new Object[columns.length]);
+    }
+
+    static String[] columnsOf(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        String[] columns = new String[metaData.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = metaData.getColumnName(i + 1);
+        }
+        return columns;
+    }
+
+    static Map<String, Integer> indexesOf(String[] columns) {
+        Map<String, Integer> indexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = columns.length - 1; i >= 0; i--) {
+            // The first column of a name wins, like in SQL
+            indexes.put(columns[i], i);
+        }
+        return indexes;
+    }
+
+    /**
+     * Read the current row of the result set into this row, reusing the value array
+     */
+    void load(ResultSet rs) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rs.getObject(i + 1);
+        }
+    }
+
+    public Object get(int index) {
+        return index >= 0 && index < values.length ? values[index] : null;
+    }
+
+    public Object get(String column) {
+        Integer index = indexes.get(column);
+        return index != null ? values[index] : null;
+    }
+
+    public int indexOf(String column) {
+        Integer index = indexes.get(column);
+        return index != null ? index : -1;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    public String getColumnName(int index) {
+        return columns[index];
+    }
+
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    /**
+     * Copy of the values
+     */
+    public Object[] toArray() {
+        return values.clone();
+    }
+
+    /**
+     * Copy as column name -> value map (the querySQL row format)
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            map.put(columns[i], values[i]);
+        }
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+}
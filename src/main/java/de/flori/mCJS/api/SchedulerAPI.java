@@ -1,14 +1,48 @@
 package de.flori.mCJS.api;
 
+import de.flori.mCJS.MCJSSettings;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitTask;
 import org.mozilla.javascript.Function;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
- * API module for task scheduling (sync and async)
+ * API module for task scheduling (sync and async).
+ * Synchronous tasks and timers run on MC-JS's TimingWheel (one Bukkit task for all of them),
+ * async tasks run on virtual threads in a per-plugin lane of the AsyncExecutor.
+ * Every task and job is tracked so that all of them can be cancelled when the plugin is unloaded.
  */
 public class SchedulerAPI extends BaseAPI {
+    private static final int MIN_PRUNE_SIZE = 64;
+    
     private final APIHelper apiHelper;
+    // Tasks and jobs of this plugin that may still run; finished ones are pruned as the sets grow
+    private final Set<BukkitTask> tasks = ConcurrentHashMap.newKeySet();
+    private final Set<BudgetedWorkQueue.Job> jobs = ConcurrentHashMap.newKeySet();
+    private volatile int pruneAt = MIN_PRUNE_SIZE;
+    
+    // Rate limiter state per key (main thread only)
+    private final Map<Object, Gate> throttles = new HashMap<>();
+    private final Map<Object, Gate> debounces = new HashMap<>();
+    private final Map<Object, Gate> coalesced = new HashMap<>();
+    private int throttlePruneAt = MIN_PRUNE_SIZE;
+    
+    /**
+     * State of one debounce/throttle/coalesce key
+     */
+    private static final class Gate {
+        long lastRun;
+        long window;
+        long deadline;
+        Function function;
+    }
     
     public SchedulerAPI(JavaPlugin plugin, APIHelper apiHelper) {
         super(plugin);
@@ -16,94 +50,126 @@ public class SchedulerAPI extends BaseAPI {
     }
     
     public BukkitTask runTaskLater(long delay, Object task) {
-        return plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+        String label = APIHelper.describe("scheduler task", task);
+        return track(TimingWheel.get(plugin).schedule(() -> {
             try {
                 if (task instanceof Function && apiHelper.getScope() != null) {
-                    apiHelper.executeFunction((Function) task);
+                    apiHelper.executeFunction(label, (Function) task);
                 }
             } catch (Exception e) {
                 plugin.getLogger().severe("Error in scheduled task: " + e.getMessage());
                 e.printStackTrace();
             }
-        }, delay);
+        }, delay, 0));
     }
     
     public BukkitTask runTaskTimer(long delay, long period, Object task) {
-        return plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
+        String label = APIHelper.describe("scheduler task", task);
+        return track(TimingWheel.get(plugin).schedule(() -> {
             try {
                 if (task instanceof Function && apiHelper.getScope() != null) {
-                    apiHelper.executeFunction((Function) task);
+                    apiHelper.executeFunction(label, (Function) task);
                 }
             } catch (Exception e) {
                 plugin.getLogger().severe("Error in scheduled task: " + e.getMessage());
                 e.printStackTrace();
             }
-        }, delay, period);
+        }, delay, period));
     }
     
     public BukkitTask runTask(Object task) {
-        return plugin.getServer().getScheduler().runTask(plugin, () -> {
+        String label = APIHelper.describe("scheduler task", task);
+        return track(TimingWheel.get(plugin).schedule(() -> {
             try {
                 if (task instanceof Function && apiHelper.getScope() != null) {
-                    apiHelper.executeFunction((Function) task);
+                    apiHelper.executeFunction(label, (Function) task);
                 }
             } catch (Exception e) {
                 plugin.getLogger().severe("Error in task: " + e.getMessage());
                 e.printStackTrace();
             }
-        });
+        }, 1, 0));
     }
     
     public BukkitTask runTaskAsync(Object task) {
-        return plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+        String label = APIHelper.describe("async task", task);
+        return track(AsyncExecutor.get(plugin).submit(apiHelper.getPluginName(), () -> {
             try {
                 if (task instanceof Function && apiHelper.getScope() != null) {
-                    apiHelper.executeFunction((Function) task);
+                    apiHelper.executeFunction(label, (Function) task);
                 }
             } catch (Exception e) {
                 plugin.getLogger().severe("Error in async task: " + e.getMessage());
                 e.printStackTrace();
             }
-        });
+        }));
+    }
+    
+    /**
+     * Run task asynchronously and pass its return value to callback on the main thread (next tick).
+     * If task throws, callback is called with (null, errorMessage) instead.
+     */
+    public BukkitTask runTaskAsync(Object task, Object callback) {
+        String label = APIHelper.describe("async task", task);
+        String callbackLabel = APIHelper.describe("async task callback", callback);
+        return track(AsyncExecutor.get(plugin).submit(apiHelper.getPluginName(), () -> {
+            Object result = null;
+            String error = null;
+            try {
+                if (task instanceof Function && apiHelper.getScope() != null) {
+                    result = apiHelper.callFunction(label, (Function) task);
+                }
+            } catch (Exception e) {
+                plugin.getLogger().severe("Error in async task: " + e.getMessage());
+                error = e.getMessage();
+            }
+            Object value = result;
+            String message = error;
+            runOnMainThread(() -> {
+                if (callback instanceof Function && apiHelper.getScope() != null) {
+                    if (message == null) {
+                        apiHelper.executeFunction(callbackLabel, (Function) callback, value);
+                    } else {
+                        apiHelper.executeFunction(callbackLabel, (Function) callback, null, message);
+                    }
+                }
+            });
+        }));
     }
     
     public BukkitTask runTaskLaterAsync(long delay, Object task) {
-        return plugin.getServer().getScheduler().runTaskLaterAsynchronously(plugin, () -> {
+        String label = APIHelper.describe("async task", task);
+        return track(AsyncExecutor.get(plugin).submitLater(apiHelper.getPluginName(), delay, () -> {
             try {
                 if (task instanceof Function && apiHelper.getScope() != null) {
-                    apiHelper.executeFunction((Function) task);
+                    apiHelper.executeFunction(label, (Function) task);
                 }
             } catch (Exception e) {
                 plugin.getLogger().severe("Error in async scheduled task: " + e.getMessage());
                 e.printStackTrace();
             }
-        }, delay);
+        }));
     }
     
     public void cancelTask(BukkitTask task) {
         if (task != null) {
             task.cancel();
+            tasks.remove(task);
         }
     }
     
     public BukkitTask runTaskSafe(Object task, Object onError) {
-        return plugin.getServer().getScheduler().runTask(plugin, () -> {
+        String label = APIHelper.describe("scheduler task", task);
+        return track(TimingWheel.get(plugin).schedule(() -> {
             try {
                 if (task instanceof Function && apiHelper.getScope() != null) {
-                    apiHelper.executeFunction((Function) task);
+                    apiHelper.executeFunction(label, (Function) task);
                 }
             } catch (Exception e) {
                 plugin.getLogger().severe("Error in task: " + e.getMessage());
                 if (onError instanceof Function && apiHelper.getScope() != null) {
                     try {
-                        org.mozilla.javascript.Context cx = org.mozilla.javascript.Context.enter();
-                        try {
-                            cx.setOptimizationLevel(-1);
-                            cx.setLanguageVersion(org.mozilla.javascript.Context.VERSION_ES6);
-                            ((Function) onError).call(cx, apiHelper.getScope(), apiHelper.getScope(), new Object[]{e.getMessage()});
-                        } finally {
-                            org.mozilla.javascript.Context.exit();
-                        }
+                        apiHelper.executeFunction("task error handler", (Function) onError, e.getMessage());
                     } catch (Exception errorHandlerException) {
                         plugin.getLogger().severe("Error in error handler: " + errorHandlerException.getMessage());
                     }
@@ -111,27 +177,21 @@ public class SchedulerAPI extends BaseAPI {
                     e.printStackTrace();
                 }
             }
-        });
+        }, 1, 0));
     }
     
     public BukkitTask runTaskAsyncSafe(Object task, Object onError) {
-        return plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+        String label = APIHelper.describe("async task", task);
+        return track(AsyncExecutor.get(plugin).submit(apiHelper.getPluginName(), () -> {
             try {
                 if (task instanceof Function && apiHelper.getScope() != null) {
-                    apiHelper.executeFunction((Function) task);
+                    apiHelper.executeFunction(label, (Function) task);
                 }
             } catch (Exception e) {
                 plugin.getLogger().severe("Error in async task: " + e.getMessage());
                 if (onError instanceof Function && apiHelper.getScope() != null) {
                     try {
-                        org.mozilla.javascript.Context cx = org.mozilla.javascript.Context.enter();
-                        try {
-                            cx.setOptimizationLevel(-1);
-                            cx.setLanguageVersion(org.mozilla.javascript.Context.VERSION_ES6);
-                            ((Function) onError).call(cx, apiHelper.getScope(), apiHelper.getScope(), new Object[]{e.getMessage()});
-                        } finally {
-                            org.mozilla.javascript.Context.exit();
-                        }
+                        apiHelper.executeFunction("task error handler", (Function) onError, e.getMessage());
                     } catch (Exception errorHandlerException) {
                         plugin.getLogger().severe("Error in error handler: " + errorHandlerException.getMessage());
                     }
@@ -139,6 +199,258 @@ public class SchedulerAPI extends BaseAPI {
                     e.printStackTrace();
                 }
             }
-        });
+        }));
+    }
+    
+    /**
+     * Run task asynchronously and return a promise for its return value (handlers run on the main thread)
+     */
+    public JSPromise runAsync(Object task) {
+        if (!(task instanceof Function)) {
+            throw new IllegalArgumentException("runAsync requires a function");
+        }
+        String label = APIHelper.describe("async task", task);
+        return JSPromise.supplyAsync(plugin, apiHelper, label, () -> apiHelper.callFunction(label, (Function) task));
+    }
+    
+    // Run Java code on the main thread on the next tick (safe to call from any thread)
+    private void runOnMainThread(Runnable runnable) {
+        TimingWheel.get(plugin).schedule(() -> {
+            try {
+                runnable.run();
+            } catch (Exception e) {
+                plugin.getLogger().severe("Error in async task callback: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }, 1, 0);
+    }
+    
+    // ===== BUDGETED WORK QUEUE =====
+    
+    /**
+     * Process items over several ticks: fn(item, index) is called for each item, using at most msPerTick
+     * milliseconds per tick (and never more than the shared performance.tick-budget-ms).
+     * Items can be a Java collection, a Java or JS array, or a number n (0 .. n-1).
+     * Returning false from fn stops the job. Use onProgress/onComplete on the returned job for notifications.
+     */
+    public BudgetedWorkQueue.Job submitBudgeted(Object items, Object fn, double msPerTick) {
+        if (!(fn instanceof Function)) {
+            throw new IllegalArgumentException("submitBudgeted requires a function");
+        }
+        BudgetedWorkQueue.Job job = BudgetedWorkQueue.get(plugin).submit(apiHelper, items, (Function) fn, msPerTick);
+        jobs.add(job);
+        if (jobs.size() >= MIN_PRUNE_SIZE) {
+            jobs.removeIf(BudgetedWorkQueue.Job::isDone);
+        }
+        return job;
+    }
+    
+    /**
+     * Process items over several ticks using the shared per-tick budget
+     */
+    public BudgetedWorkQueue.Job submitBudgeted(Object items, Object fn) {
+        return submitBudgeted(items, fn, MCJSSettings.get().getTickBudgetMs());
+    }
+    
+    // ===== RATE LIMITING =====
+    // Decided in Java on the server tick clock, so calls that are skipped never enter Rhino.
+    // Keys can be strings, numbers, players/entities (keyed by UUID) or other objects (compared with equals).
+    // Meant to be used from the main thread (event handlers, commands, tasks).
+    
+    /**
+     * Call fn(key) now unless it already ran for this key within the last ticks ticks.
+     * Returns true if fn was called.
+     */
+    public boolean throttle(Object key, long ticks, Object fn) {
+        if (!(fn instanceof Function)) {
+            throw new IllegalArgumentException("throttle requires a function");
+        }
+        Object gateKey = gateKey(key);
+        long now = Bukkit.getCurrentTick();
+        Gate gate = throttles.get(gateKey);
+        if (gate != null && now - gate.lastRun < gate.window) {
+            return false;
+        }
+        if (gate == null) {
+            pruneThrottles(now);
+            gate = new Gate();
+            throttles.put(gateKey, gate);
+        }
+        gate.lastRun = now;
+        gate.window = ticks;
+        apiHelper.executeFunction(APIHelper.describe("throttled callback", fn), (Function) fn, key);
+        return true;
+    }
+    
+    /**
+     * Call fn(key) once no further debounce call for this key happened for ticks ticks.
+     * Every call pushes the deadline back and replaces fn; only one timer per key is scheduled.
+     */
+    public void debounce(Object key, long ticks, Object fn) {
+        if (!(fn instanceof Function)) {
+            throw new IllegalArgumentException("debounce requires a function");
+        }
+        Object gateKey = gateKey(key);
+        long delay = Math.max(1, ticks);
+        Gate gate = debounces.get(gateKey);
+        if (gate == null) {
+            gate = new Gate();
+            debounces.put(gateKey, gate);
+            Gate newGate = gate;
+            track(TimingWheel.get(plugin).schedule(() -> fireDebounce(gateKey, key, newGate), delay, 0));
+        }
+        // Moving the deadline is enough, the timer reschedules itself when it fires early
+        gate.deadline = Bukkit.getCurrentTick() + delay;
+        gate.function = (Function) fn;
+    }
+    
+    /**
+     * Call fn(key) once at the next tick, no matter how often coalesce is called for this key until then (the last fn wins)
+     */
+    public void coalesce(Object key, Object fn) {
+        if (!(fn instanceof Function)) {
+            throw new IllegalArgumentException("coalesce requires a function");
+        }
+        Object gateKey = gateKey(key);
+        Gate gate = coalesced.get(gateKey);
+        if (gate == null) {
+            gate = new Gate();
+            coalesced.put(gateKey, gate);
+            Gate newGate = gate;
+            track(TimingWheel.get(plugin).schedule(() -> {
+                coalesced.remove(gateKey, newGate);
+                runGate("coalesced callback", newGate, key);
+            }, 1, 0));
+        }
+        gate.function = (Function) fn;
+    }
+    
+    /**
+     * Forget the throttle/debounce/coalesce state of a key; a pending debounced or coalesced call is dropped
+     */
+    public void resetLimit(Object key) {
+        Object gateKey = gateKey(key);
+        throttles.remove(gateKey);
+        Gate debounced = debounces.remove(gateKey);
+        if (debounced != null) {
+            debounced.function = null;
+        }
+        Gate pending = coalesced.remove(gateKey);
+        if (pending != null) {
+            pending.function = null;
+        }
+    }
+    
+    private void fireDebounce(Object gateKey, Object key, Gate gate) {
+        if (debounces.get(gateKey) != gate) {
+            return;
+        }
+        long remaining = gate.deadline - Bukkit.getCurrentTick();
+        if (remaining > 0) {
+            track(TimingWheel.get(plugin).schedule(() -> fireDebounce(gateKey, key, gate), remaining, 0));
+            return;
+        }
+        debounces.remove(gateKey);
+        runGate("debounced callback", gate, key);
+    }
+    
+    private void runGate(String kind, Gate gate, Object key) {
+        Function function = gate.function;
+        if (function != null && apiHelper.getScope() != null) {
+            apiHelper.executeFunction(APIHelper.describe(kind, function), function, key);
+        }
+    }
+    
+    // Drop throttle entries whose window has passed once the map has doubled since the last prune
+    private void pruneThrottles(long now) {
+        if (throttles.size() < throttlePruneAt) {
+            return;
+        }
+        throttles.values().removeIf(gate -> now - gate.lastRun >= gate.window);
+        throttlePruneAt = Math.max(MIN_PRUNE_SIZE, throttles.size() * 2);
+    }
+    
+    // The map key for a gate: no string is built for the common keys (entities, strings)
+    private static Object gateKey(Object key) {
+        if (key instanceof Entity) {
+            return ((Entity) key).getUniqueId();
+        }
+        if (key instanceof CharSequence && !(key instanceof String)) {
+            // Rhino ConsString (concatenated JS string) has no value equality
+            return key.toString();
+        }
+        return key;
+    }
+    
+    // ===== TASK REGISTRY =====
+    
+    private <T extends BukkitTask> T track(T task) {
+        tasks.add(task);
+        // One-shot tasks report as cancelled once they ran; drop them when the set has doubled since the last prune
+        if (tasks.size() >= pruneAt) {
+            tasks.removeIf(BukkitTask::isCancelled);
+            pruneAt = Math.max(MIN_PRUNE_SIZE, tasks.size() * 2);
+        }
+        return task;
+    }
+    
+    /**
+     * Number of live tasks of this plugin by kind: timers, delayed (sync tasks waiting to run), async and jobs
+     */
+    public Map<String, Integer> getTaskCounts() {
+        int timers = 0;
+        int delayed = 0;
+        int async = 0;
+        for (BukkitTask task : tasks) {
+            if (task.isCancelled()) {
+                continue;
+            }
+            if (!task.isSync()) {
+                async++;
+            } else if (task instanceof TimingWheel.WheelTask && ((TimingWheel.WheelTask) task).getPeriod() > 0) {
+                timers++;
+            } else {
+                delayed++;
+            }
+        }
+        int activeJobs = 0;
+        for (BudgetedWorkQueue.Job job : jobs) {
+            if (!job.isDone()) {
+                activeJobs++;
+            }
+        }
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put("timers", timers);
+        counts.put("delayed", delayed);
+        counts.put("async", async);
+        counts.put("jobs", activeJobs);
+        return counts;
+    }
+    
+    /**
+     * Stop everything this plugin scheduled (called when the plugin is unloaded).
+     * Returns the number of tasks and jobs that were still live.
+     */
+    public int shutdown() {
+        int cancelled = 0;
+        for (BukkitTask task : tasks) {
+            if (!task.isCancelled()) {
+                task.cancel();
+                cancelled++;
+            }
+        }
+        tasks.clear();
+        for (BudgetedWorkQueue.Job job : jobs) {
+            if (!job.isDone()) {
+                cancelled++;
+            }
+        }
+        jobs.clear();
+        throttles.clear();
+        debounces.clear();
+        coalesced.clear();
+        BudgetedWorkQueue.get(plugin).cancelAll(apiHelper);
+        AsyncExecutor.get(plugin).cancelAll(apiHelper.getPluginName());
+        return cancelled;
     }
 }
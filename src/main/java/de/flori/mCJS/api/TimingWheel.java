@@ -0,0 +1,343 @@
+package de.flori.mCJS.api;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hierarchical timing wheel that multiplexes all synchronous JS delays and timers onto one Bukkit repeating task.
+ * Level 0 has one slot per tick for the next 256 ticks, the upper levels cover 2^14, 2^20 and 2^26 ticks
+ * and are cascaded down as time passes. Insert and cancel are O(1); each tick runs the tasks of one slot as a batch.
+ * The wheel itself is only modified on the main thread; tasks scheduled from other threads are handed over on the next tick.
+ */
+public final class TimingWheel implements Runnable {
+    private static final int ROOT_BITS = 8;
+    private static final int LEVEL_BITS = 6;
+    private static final int LEVELS = 4;
+    private static final int ROOT_SIZE = 1 << ROOT_BITS;
+    private static final int LEVEL_SIZE = 1 << LEVEL_BITS;
+    // Longest delay that fits into the wheel; longer ones are re-inserted when they come around
+    private static final long MAX_DELTA = (1L << (ROOT_BITS + (LEVELS - 1) * LEVEL_BITS)) - 1;
+
+    private static TimingWheel instance;
+
+    private final JavaPlugin plugin;
+    private final Slot[][] levels = new Slot[LEVELS][];
+    // Tasks scheduled from other threads
+    private final ConcurrentLinkedQueue<WheelTask> pending = new ConcurrentLinkedQueue<>();
+    // Our own task ids are negative so they never collide with Bukkit's
+    private final AtomicInteger nextTaskId = new AtomicInteger();
+
+    // Main thread only
+    private long currentTick;
+    private int size;
+    private BukkitTask ticker;
+
+    /**
+     * Doubly linked list of the tasks in one slot
+     */
+    private static final class Slot {
+        WheelTask head;
+        WheelTask tail;
+    }
+
+    /**
+     * A delay or timer scheduled on the wheel. Behaves like a BukkitTask for scripts (cancel, isCancelled, ...).
+     */
+    public static final class WheelTask implements BukkitTask {
+        private final TimingWheel wheel;
+        private final int taskId;
+        private final Plugin owner;
+        private final Runnable runnable;
+        private final long period;
+        private volatile boolean cancelled;
+
+        // Position in the wheel (main thread only)
+        private long expires;
+        private Slot slot;
+        private WheelTask prev;
+        private WheelTask next;
+
+        private WheelTask(TimingWheel wheel, int taskId, Plugin owner, Runnable runnable, long period) {
+            this.wheel = wheel;
+            this.taskId = taskId;
+            this.owner = owner;
+            this.runnable = runnable;
+            this.period = period;
+        }
+
+        @Override
+        public int getTaskId() {
+            return taskId;
+        }
+
+        @Override
+        public Plugin getOwner() {
+            return owner;
+        }
+
+        @Override
+        public boolean isSync() {
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void cancel() {
+            wheel.cancel(this);
+        }
+
+        /**
+         * Ticks between runs, or 0 for a one-shot task
+         */
+        public long getPeriod() {
+            return period;
+        }
+    }
+
+    private TimingWheel(JavaPlugin plugin) {
+        this.plugin = plugin;
+        levels[0] = newSlots(ROOT_SIZE);
+        for (int level = 1; level < LEVELS; level++) {
+            levels[level] = newSlots(LEVEL_SIZE);
+        }
+    }
+
+    /**
+     * Get the shared wheel (created on first use)
+     */
+    public static synchronized TimingWheel get(JavaPlugin plugin) {
+        if (instance == null) {
+            instance = new TimingWheel(plugin);
+        }
+        return instance;
+    }
+
+    /**
+     * Schedule a task to run after delay ticks (at least 1), then every period ticks if period > 0
+     */
+    public WheelTask schedule(Runnable runnable, long delay, long period) {
+        WheelTask task = new WheelTask(this, -nextTaskId.incrementAndGet(), plugin, runnable, Math.max(0, period));
+        task.expires = Math.max(1, delay);
+
+        if (Bukkit.isPrimaryThread()) {
+            task.expires += currentTick;
+            add(task);
+        } else {
+            // Delay is made absolute when the main thread picks it up
+            pending.add(task);
+        }
+        ensureTicker();
+        return task;
+    }
+
+    /**
+     * Cancel a task. O(1) on the main thread; from other threads the task is dropped when its slot comes up.
+     */
+    public void cancel(WheelTask task) {
+        if (task.cancelled) {
+            return;
+        }
+        task.cancelled = true;
+        if (Bukkit.isPrimaryThread() && task.slot != null) {
+            unlink(task);
+        }
+    }
+
+    /**
+     * Cancel every task in the wheel (main thread, used when MC-JS is disabled)
+     */
+    public static synchronized void clear() {
+        TimingWheel wheel = instance;
+        if (wheel == null) {
+            return;
+        }
+        wheel.pending.forEach(task -> task.cancelled = true);
+        wheel.pending.clear();
+        for (Slot[] slots : wheel.levels) {
+            for (Slot slot : slots) {
+                for (WheelTask task = slot.head; task != null; task = task.next) {
+                    task.cancelled = true;
+                }
+                slot.head = null;
+                slot.tail = null;
+            }
+        }
+        wheel.size = 0;
+        wheel.stopTicker();
+    }
+
+    /**
+     * Number of tasks currently in the wheel
+     */
+    public int size() {
+        return size;
+    }
+
+    private synchronized void ensureTicker() {
+        if ((ticker == null || ticker.isCancelled()) && plugin.isEnabled()) {
+            ticker = plugin.getServer().getScheduler().runTaskTimer(plugin, this, 1L, 1L);
+        }
+    }
+
+    @Override
+    public void run() {
+        WheelTask added;
+        while ((added = pending.poll()) != null) {
+            if (!added.cancelled) {
+                added.expires += currentTick;
+                add(added);
+            }
+        }
+
+        long tick = ++currentTick;
+        int index = (int) (tick & (ROOT_SIZE - 1));
+
+        // Move the tasks of the next upper slot down whenever a lower level wrapped around
+        if (index == 0) {
+            for (int level = 1; level < LEVELS; level++) {
+                int levelIndex = (int) ((tick >>> (ROOT_BITS + (level - 1) * LEVEL_BITS)) & (LEVEL_SIZE - 1));
+                cascade(levels[level][levelIndex]);
+                if (levelIndex != 0) {
+                    break;
+                }
+            }
+        }
+
+        // Detach the due slot first so tasks scheduled by callbacks never end up in the batch being run
+        Slot slot = levels[0][index];
+        WheelTask task = slot.head;
+        slot.head = null;
+        slot.tail = null;
+
+        while (task != null) {
+            WheelTask next = task.next;
+            task.prev = null;
+            task.next = null;
+            task.slot = null;
+            size--;
+
+            if (!task.cancelled) {
+                if (task.expires > tick) {
+                    // Delay was longer than the wheel, not due yet
+                    add(task);
+                } else {
+                    runTask(task, tick);
+                }
+            }
+            task = next;
+        }
+
+        if (size == 0 && pending.isEmpty()) {
+            stopTicker();
+        }
+    }
+
+    private void runTask(WheelTask task, long tick) {
+        try {
+            task.runnable.run();
+        } catch (Throwable t) {
+            plugin.getLogger().severe("Error in scheduled JS task " + task.taskId + ": " + t.getMessage());
+            t.printStackTrace();
+        }
+
+        if (task.period > 0) {
+            if (!task.cancelled) {
+                task.expires = tick + task.period;
+                add(task);
+            }
+        } else {
+            // One-shot tasks report as cancelled once they ran, like Bukkit tasks
+            task.cancelled = true;
+        }
+    }
+
+    private synchronized void stopTicker() {
+        if (ticker != null && pending.isEmpty()) {
+            ticker.cancel();
+            ticker = null;
+        }
+    }
+
+    // Re-insert all tasks of an upper slot; they now fall into a lower level
+    private void cascade(Slot slot) {
+        WheelTask task = slot.head;
+        slot.head = null;
+        slot.tail = null;
+        while (task != null) {
+            WheelTask next = task.next;
+            task.prev = null;
+            task.next = null;
+            task.slot = null;
+            size--;
+            if (!task.cancelled) {
+                add(task);
+            }
+            task = next;
+        }
+    }
+
+    private void add(WheelTask task) {
+        long delta = task.expires - currentTick;
+        long expires = delta > MAX_DELTA ? currentTick + MAX_DELTA : task.expires;
+        delta = Math.min(delta, MAX_DELTA);
+
+        Slot slot;
+        if (delta < ROOT_SIZE) {
+            slot = levels[0][(int) (expires & (ROOT_SIZE - 1))];
+        } else {
+            int level = 1;
+            while (level < LEVELS - 1 && delta >= 1L << (ROOT_BITS + level * LEVEL_BITS)) {
+                level++;
+            }
+            int shift = ROOT_BITS + (level - 1) * LEVEL_BITS;
+            slot = levels[level][(int) ((expires >>> shift) & (LEVEL_SIZE - 1))];
+        }
+
+        // Append so tasks due in the same tick run in scheduling order
+        task.slot = slot;
+        task.prev = slot.tail;
+        task.next = null;
+        if (slot.tail != null) {
+            slot.tail.next = task;
+        } else {
+            slot.head = task;
+        }
+        slot.tail = task;
+        size++;
+    }
+
+    private void unlink(WheelTask task) {
+        Slot slot = task.slot;
+        if (task.prev != null) {
+            task.prev.next = task.next;
+        } else {
+            slot.head = task.next;
+        }
+        if (task.next != null) {
+            task.next.prev = task.prev;
+        } else {
+            slot.tail = task.prev;
+        }
+        task.prev = null;
+        task.next = null;
+        task.slot = null;
+        size--;
+    }
+
+    private static Slot[] newSlots(int count) {
+        Slot[] slots = new Slot[count];
+        for (int i = 0; i < count; i++) {
+            slots[i] = new Slot();
+        }
+        return slots;
+    }
+}